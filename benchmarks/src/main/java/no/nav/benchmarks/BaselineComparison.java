@@ -0,0 +1,105 @@
+package no.nav.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH result files written with {@code -rf json}, and exits with status 1 if any benchmark got slower or
+ * allocates more than the threshold allows. Allocation is only compared when both runs used {@code -prof gc}.
+ * <pre>
+ * java -jar benchmarks/target/benchmarks.jar -prof gc -rf json -rff current.json
+ * java -cp benchmarks/target/benchmarks.jar no.nav.benchmarks.BaselineComparison baseline.json current.json [threshold %]
+ * </pre>
+ */
+public class BaselineComparison {
+    private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+    private static final double ALLOCATION_NOISE_BYTES = 8;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BaselineComparison <baseline.json> <current.json> [threshold percent, default 10]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        var baseline = read(Path.of(args[0]));
+        var current = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s %12s %12s%n", "Benchmark", "Baseline", "Current", "Change", "B/op before", "B/op now");
+        for (var entry : current.entrySet()) {
+            var now = entry.getValue();
+            var before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s%n", entry.getKey(), "-", now.score, "new");
+                continue;
+            }
+            double change = 100 * (now.score - before.score) / before.score;
+            // Lower is better for time per operation, higher is better for throughput
+            boolean slower = now.higherIsBetter() ? change < -threshold : change > threshold;
+            boolean allocatesMore = before.allocation >= 0 && now.allocation >= 0
+                    && now.allocation - before.allocation > Math.max(ALLOCATION_NOISE_BYTES, before.allocation * threshold / 100);
+            System.out.printf("%-90s %14.3f %14.3f %8.1f%% %12s %12s%s%n", entry.getKey(), before.score, now.score, change,
+                    bytes(before.allocation), bytes(now.allocation),
+                    slower || allocatesMore ? "  REGRESSION" : "");
+            if (slower || allocatesMore) regressions++;
+        }
+        for (var key : baseline.keySet()) {
+            if (!current.containsKey(key)) System.out.printf("%-90s %14s%n", key, "missing");
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " regression(s) above " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    private static String bytes(double allocation) {
+        return allocation < 0 ? "-" : String.format("%.1f", allocation);
+    }
+
+    private static Map<String, Result> read(Path file) throws IOException {
+        Map<String, Result> results = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+            for (JsonElement element : runs) {
+                JsonObject run = element.getAsJsonObject();
+                String mode = run.get("mode").getAsString();
+                JsonObject primary = run.getAsJsonObject("primaryMetric");
+                double allocation = -1;
+                JsonObject secondary = run.getAsJsonObject("secondaryMetrics");
+                if (secondary != null && secondary.has(ALLOCATION_METRIC)) {
+                    allocation = secondary.getAsJsonObject(ALLOCATION_METRIC).get("score").getAsDouble();
+                }
+                results.put(key(run, mode), new Result(mode, primary.get("score").getAsDouble(), allocation));
+            }
+        }
+        return results;
+    }
+
+    private static String key(JsonObject run, String mode) {
+        var key = new StringBuilder(run.get("benchmark").getAsString()).append(' ').append(mode);
+        if (run.has("params")) {
+            for (var param : run.getAsJsonObject("params").entrySet()) {
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().getAsString());
+            }
+        }
+        if (run.has("threads") && run.get("threads").getAsInt() != 1) {
+            key.append(" threads=").append(run.get("threads").getAsInt());
+        }
+        return key.toString();
+    }
+
+    private record Result(String mode, double score, double allocation) {
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package no.nav.benchmarks;
+
+import no.nav.idvalidator.FodselsnummerValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Same shape as {@link OrganisasjonsnummerValidatorBenchmark}, so the two identity number checks can be compared in
+ * one run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FodselsnummerValidatorBenchmark {
+    private final FodselsnummerValidator validator = new FodselsnummerValidator();
+
+    public enum Input {
+        VALID("01019012480"),
+        D_NUMMER("41018523459"),
+        INVALID_CHECKSUM("01019012481"),
+        INVALID_DATE("30029012373"),
+        WRONG_LENGTH("0101901248"),
+        NULL(null),
+        NON_DIGIT("0101901248A");
+
+        private final String fnr;
+
+        Input(String fnr) {
+            this.fnr = fnr;
+        }
+    }
+
+    @Param
+    public Input input;
+
+    private String fnr;
+
+    @Setup
+    public void setup() {
+        fnr = input.fnr;
+    }
+
+    @Benchmark
+    public boolean singlePass() {
+        return validator.test(fnr);
+    }
+}
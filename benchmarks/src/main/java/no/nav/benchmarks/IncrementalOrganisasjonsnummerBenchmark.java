@@ -0,0 +1,48 @@
+package no.nav.benchmarks;
+
+import no.nav.idvalidator.IncrementalOrganisasjonsnummerValidator;
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A parser scanning a JSON string value byte by byte: feeding each byte to the incremental validator while scanning,
+ * against collecting the value into a {@link String} and validating that.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalOrganisasjonsnummerBenchmark {
+    private static final int START = "{\"orgnr\":\"".length();
+
+    private final byte[] json = "{\"orgnr\":\"974791854\",\"navn\":\"NAV\"}".getBytes(StandardCharsets.US_ASCII);
+    private final IncrementalOrganisasjonsnummerValidator incremental = new IncrementalOrganisasjonsnummerValidator();
+    private final OrganisasjonsnummerValidator validator = new OrganisasjonsnummerValidator();
+
+    @Benchmark
+    public boolean incremental() {
+        incremental.reset();
+        for (int i = START; json[i] != '"'; i++) incremental.accept(json[i]);
+        return incremental.isValid();
+    }
+
+    @Benchmark
+    public boolean viaString() {
+        int end = START;
+        while (json[end] != '"') end++;
+        return validator.test(new String(json, START, end - START, StandardCharsets.US_ASCII));
+    }
+}
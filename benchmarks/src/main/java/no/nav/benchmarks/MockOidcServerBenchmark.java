@@ -0,0 +1,75 @@
+package no.nav.benchmarks;
+
+import no.nav.tokentest.MockOidcServer;
+import no.nav.tokentest.TokenHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second against the local OIDC server, over kept-alive HTTP/1.1 connections from several client threads,
+ * like a set of services polling for keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+// Without it every kept-alive request waits for a delayed ACK; see MockOidcServer
+@Fork(value = 1, jvmArgsAppend = "-Dsun.net.httpserver.nodelay=true")
+@Threads(8)
+public class MockOidcServerBenchmark {
+    private MockOidcServer server;
+    private HttpClient client;
+    private HttpRequest jwks;
+    private HttpRequest discovery;
+    private HttpRequest token;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        server = MockOidcServer.start(new TokenHandler(true));
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        jwks = HttpRequest.newBuilder(server.getJwksUri()).build();
+        discovery = HttpRequest.newBuilder(server.getDiscoveryUri()).build();
+        token = HttpRequest.newBuilder(server.getTokenEndpoint())
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials&sub=benchmark"))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        server.close();
+    }
+
+    @Benchmark
+    public byte[] jwks() throws IOException, InterruptedException {
+        return client.send(jwks, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] discovery() throws IOException, InterruptedException {
+        return client.send(discovery, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+
+    @Benchmark
+    public byte[] token() throws IOException, InterruptedException {
+        return client.send(token, HttpResponse.BodyHandlers.ofByteArray()).body();
+    }
+}
@@ -0,0 +1,71 @@
+package no.nav.benchmarks;
+
+import no.nav.idvalidator.OrganisasjonsnummerBatchValidator;
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per record for newline-terminated fixed-width records, comparing the scalar and Vector API batch kernels with
+ * the delimiter-scanning {@link OrganisasjonsnummerValidator#testAll} path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class OrganisasjonsnummerBatchBenchmark {
+    private static final int RECORDS = 10_000;
+    private static final int RECORD_LENGTH = 10;
+
+    private final OrganisasjonsnummerValidator validator = new OrganisasjonsnummerValidator();
+    private final boolean[] result = new boolean[RECORDS];
+    private byte[] data;
+    private ByteBuffer buffer;
+
+    @Setup
+    public void setup() {
+        var random = new SplittableRandom(42);
+        data = new byte[RECORDS * RECORD_LENGTH];
+        for (int i = 0; i < RECORDS; i++) {
+            // Roughly one in three valid, like a dump with typing errors mixed in
+            String orgnr = random.nextInt(3) == 0 ? "974791854" : String.format("%09d", random.nextInt(1_000_000_000));
+            System.arraycopy(orgnr.getBytes(StandardCharsets.US_ASCII), 0, data, i * RECORD_LENGTH, 9);
+            data[i * RECORD_LENGTH + 9] = '\n';
+        }
+        buffer = ByteBuffer.wrap(data);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int scalar() {
+        return OrganisasjonsnummerBatchValidator.scalar().testFixedWidth(data, 0, RECORD_LENGTH, RECORDS, result);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int vector() {
+        return OrganisasjonsnummerBatchValidator.vector().testFixedWidth(data, 0, RECORD_LENGTH, RECORDS, result);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int delimited() {
+        return validator.testAll(buffer, (byte) '\n', result);
+    }
+}
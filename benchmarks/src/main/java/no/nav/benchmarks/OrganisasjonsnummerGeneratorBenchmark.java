@@ -0,0 +1,65 @@
+package no.nav.benchmarks;
+
+import no.nav.idvalidator.OrganisasjonsnummerGenerator;
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per valid organisasjonsnummer: computing the control digit, against drawing random nine-digit strings until
+ * one validates, and writing the generated numbers as text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrganisasjonsnummerGeneratorBenchmark {
+    private static final int COUNT = 10_000;
+    private static final int FROM = 88_000_000;
+
+    private final OrganisasjonsnummerValidator validator = new OrganisasjonsnummerValidator();
+    private final SplittableRandom random = new SplittableRandom(42);
+    private final OutputStream sink = OutputStream.nullOutputStream();
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long generate() {
+        return OrganisasjonsnummerGenerator.valid(FROM, OrganisasjonsnummerGenerator.PREFIXES)
+                .limit(COUNT).sum();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long bruteForce() {
+        long sum = 0;
+        for (int found = 0; found < COUNT; ) {
+            var orgnr = String.format("%09d", random.nextInt(1_000_000_000));
+            if (validator.test(orgnr)) {
+                sum += orgnr.hashCode();
+                found++;
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(COUNT)
+    public long write() throws IOException {
+        return OrganisasjonsnummerGenerator.write(OrganisasjonsnummerGenerator.valid(FROM, FROM + COUNT * 11 / 10).limit(COUNT), sink);
+    }
+}
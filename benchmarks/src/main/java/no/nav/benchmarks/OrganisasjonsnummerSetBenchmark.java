@@ -0,0 +1,74 @@
+package no.nav.benchmarks;
+
+import no.nav.idvalidator.OrganisasjonsnummerGenerator;
+import no.nav.idvalidator.OrganisasjonsnummerSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Lookups in a registry of about a million organisasjonsnummer: the packed {@link OrganisasjonsnummerSet} against a
+ * {@code HashSet<String>}. Half the queries are members; run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrganisasjonsnummerSetBenchmark {
+    private static final int QUERIES = 1024;
+
+    private OrganisasjonsnummerSet packed;
+    private Set<String> hashSet;
+    private String[] queries;
+
+    @Setup
+    public void setup() {
+        // Every other valid number from 97 000 000 on, a million in all
+        var registry = OrganisasjonsnummerGenerator.valid(97_000_000, 99_200_000).limit(2_000_000).toArray();
+        var builder = OrganisasjonsnummerSet.builder();
+        hashSet = new HashSet<>();
+        for (int i = 0; i < registry.length; i += 2) {
+            builder.add(registry[i]);
+            hashSet.add(OrganisasjonsnummerGenerator.format(registry[i]));
+        }
+        packed = builder.build();
+        var random = new SplittableRandom(42);
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = OrganisasjonsnummerGenerator.format(registry[random.nextInt(registry.length)]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int packed() {
+        int found = 0;
+        for (var query : queries) if (packed.contains(query)) found++;
+        return found;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(QUERIES)
+    public int hashSet() {
+        int found = 0;
+        // Fresh strings, as they would arrive in requests, so the cached hash code does not help
+        for (var query : queries) if (hashSet.contains(new String(query))) found++;
+        return found;
+    }
+}
@@ -0,0 +1,61 @@
+package no.nav.benchmarks;
+
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrganisasjonsnummerValidatorBenchmark {
+    private final OrganisasjonsnummerValidator validator = new OrganisasjonsnummerValidator();
+    private final LegacyOrganisasjonsnummerValidator legacyValidator = new LegacyOrganisasjonsnummerValidator();
+
+    public enum Input {
+        VALID("974791854"),
+        INVALID_CHECKSUM("889640780"),
+        WRONG_LENGTH("8896407820"),
+        NULL(null),
+        NON_DIGIT("88964A782");
+
+        private final String orgnr;
+
+        Input(String orgnr) {
+            this.orgnr = orgnr;
+        }
+    }
+
+    @Param
+    public Input input;
+
+    private String orgnr;
+
+    @Setup
+    public void setup() {
+        orgnr = input.orgnr;
+    }
+
+    @Benchmark
+    public boolean singlePass() {
+        return validator.test(orgnr);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        return legacyValidator.test(orgnr);
+    }
+}
@@ -0,0 +1,71 @@
+package no.nav.benchmarks;
+
+import no.nav.tokentest.TokenBatch;
+import no.nav.tokentest.TokenClaims;
+import no.nav.tokentest.TokenHandler;
+import no.nav.tokentest.TokenHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time per token when minting a batch, against one {@code getSignedToken} call after another on a single thread.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBatchBenchmark {
+    private static final int TOKENS = 2000;
+
+    private TokenHandler tokenHandler;
+    private TokenHeaders headers;
+    private TokenClaims claims;
+    private TokenBatch batch;
+
+    @Setup
+    public void setup() {
+        tokenHandler = new TokenHandler(true);
+        headers = TokenHeaders.builder().withKid("benchmark").build();
+        claims = TokenClaims.builder().withDefaultClaims()
+                .withClaim("aud", "benchmarks")
+                .withClaim("exp", Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond())
+                .build();
+        batch = TokenBatch.builder(tokenHandler).withHeaders(headers).withClaims(claims)
+                .withCustomizer((builder, index) -> builder.withClaim("sub", "bruker" + index))
+                .build();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void batch(Blackhole blackhole) {
+        batch.mint(TOKENS, blackhole::consume);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TOKENS)
+    public void sequential(Blackhole blackhole) {
+        for (int i = 0; i < TOKENS; i++) {
+            var tokenClaims = TokenClaims.builder().withDefaultClaims()
+                    .withClaim("aud", "benchmarks")
+                    .withClaim("sub", "bruker" + i)
+                    .build();
+            blackhole.consume(tokenHandler.getSignedToken(headers, tokenClaims));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package no.nav.benchmarks;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import no.nav.tokentest.TokenClaims;
+import no.nav.tokentest.TokenClaimsTemplate;
+import no.nav.tokentest.TokenHandler;
+import no.nav.tokentest.TokenHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the claims for one token from a template against the builder, with and without signing. Run with
+ * {@code -prof gc} to compare allocation per token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenClaimsTemplateBenchmark {
+    private TokenHandler tokenHandler;
+    private TokenHeaders headers;
+    private TokenClaimsTemplate template;
+    private int next;
+
+    @Setup
+    public void setup() {
+        tokenHandler = TokenHandler.builder().withAlgorithm(SignatureAlgorithm.ES256).withStaticKeyPair().build();
+        headers = TokenHeaders.builder().build();
+        template = TokenClaimsTemplate.builder().withDefaultClaims()
+                .withClaim("aud", "benchmarks")
+                .withClaim("groups", List.of("gruppe1", "gruppe2"))
+                .build();
+    }
+
+    private TokenClaims claims() {
+        return TokenClaims.builder().withDefaultClaims()
+                .withClaim("aud", "benchmarks")
+                .withClaim("groups", List.of("gruppe1", "gruppe2"))
+                .withClaim("sub", "bruker" + next)
+                .withClaim("jti", "id" + next++)
+                .build();
+    }
+
+    @Benchmark
+    public String templatePayload() {
+        return template.payload("bruker" + next, "id" + next++);
+    }
+
+    @Benchmark
+    public String templateSigned() {
+        return tokenHandler.getSignedToken(headers, template.payload("bruker" + next, "id" + next++));
+    }
+
+    @Benchmark
+    public String builderSigned() {
+        return tokenHandler.getSignedToken(headers, claims());
+    }
+}
@@ -0,0 +1,62 @@
+package no.nav.benchmarks;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import no.nav.tokentest.TokenClaims;
+import no.nav.tokentest.TokenHandler;
+import no.nav.tokentest.TokenHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signing and validation cost per algorithm, with the static key pairs so every run uses the same keys.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenHandlerAlgorithmBenchmark {
+    @Param({"RS256", "ES256", "ES384", "ES512"})
+    private SignatureAlgorithm algorithm;
+
+    private TokenHandler tokenHandler;
+    private TokenHeaders headers;
+    private TokenClaims claims;
+    private String signedToken;
+
+    @Setup
+    public void setup() {
+        tokenHandler = TokenHandler.builder().withAlgorithm(algorithm).withStaticKeyPair().build();
+        headers = TokenHeaders.builder().withKid("benchmark").build();
+        claims = TokenClaims.builder().withDefaultClaims()
+                .withClaim("sub", "benchmark")
+                .withClaim("aud", "benchmarks")
+                .withClaim("exp", Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond())
+                .build();
+        signedToken = tokenHandler.getSignedToken(headers, claims);
+    }
+
+    @Benchmark
+    public String sign() {
+        return tokenHandler.getSignedToken(headers, claims);
+    }
+
+    @Benchmark
+    public Object verify() {
+        return tokenHandler.validateAndParseToken(signedToken);
+    }
+}
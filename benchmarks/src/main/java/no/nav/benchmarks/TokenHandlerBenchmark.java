@@ -0,0 +1,141 @@
+package no.nav.benchmarks;
+
+import com.google.gson.Gson;
+import no.nav.tokentest.TokenClaims;
+import no.nav.tokentest.TokenHandler;
+import no.nav.tokentest.TokenHeaders;
+import no.nav.tokentest.TokenValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenHandlerBenchmark {
+    private TokenHandler tokenHandler;
+    private TokenHandler cachingTokenHandler;
+    private TokenValidator validator;
+    private TokenHeaders headers;
+    private TokenClaims claims;
+    private String signedToken;
+    private String largeToken;
+
+    @Setup
+    public void setup() {
+        tokenHandler = new TokenHandler(true);
+        headers = TokenHeaders.builder().withKid("benchmark").build();
+        // exp is pushed well past the run time so validation never starts failing halfway through a long run
+        claims = TokenClaims.builder().withDefaultClaims()
+                .withClaim("sub", "benchmark")
+                .withClaim("aud", "benchmarks")
+                .withClaim("exp", Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond())
+                .build();
+        signedToken = tokenHandler.getSignedToken(headers, claims);
+        // A token with the sub and exp a service reads, behind a hundred claims it does not
+        var large = TokenClaims.builder().withDefaultClaims()
+                .withClaim("exp", Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond());
+        for (int i = 0; i < 100; i++) large.withClaim("claim" + i, List.of("value" + i, i, Map.of("nested", i)));
+        largeToken = tokenHandler.getSignedToken(headers, large.withClaim("sub", "benchmark").build());
+        validator = tokenHandler.validator()
+                .requireIssuer("tokentestsupport-TokenHandler")
+                .requireAudience("benchmarks")
+                .requireSubject("benchmark")
+                .build();
+        cachingTokenHandler = TokenHandler.builder().withStaticKeyPair()
+                .withValidationCache(1000, Duration.ofHours(1))
+                .build();
+    }
+
+    @Benchmark
+    public String getSignedToken() {
+        return tokenHandler.getSignedToken(headers, claims);
+    }
+
+    @Benchmark
+    public Object validateAndParseToken() {
+        return tokenHandler.validateAndParseToken(signedToken);
+    }
+
+    @Benchmark
+    public boolean validateAndCheckClaims() {
+        var body = tokenHandler.validateAndParseToken(signedToken);
+        return "tokentestsupport-TokenHandler".equals(body.getIssuer()) && "benchmarks".equals(body.getAudience())
+                && "benchmark".equals(body.getSubject());
+    }
+
+    @Benchmark
+    public boolean validator() {
+        return validator.validate(signedToken).isValid();
+    }
+
+    @Benchmark
+    public long validateToClaimsView() {
+        var view = tokenHandler.validateToClaimsView(signedToken);
+        return view.getSubject().length() + view.getExpiration();
+    }
+
+    @Benchmark
+    public long validateAndParseLargeToken() {
+        var body = tokenHandler.validateAndParseToken(largeToken);
+        return body.getSubject().length() + body.getExpiration().getTime();
+    }
+
+    @Benchmark
+    public long validateLargeTokenToClaimsView() {
+        var view = tokenHandler.validateToClaimsView(largeToken);
+        return view.getSubject().length() + view.getExpiration();
+    }
+
+    @Benchmark
+    public Object validateAndParseTokenCached() {
+        return cachingTokenHandler.validateAndParseToken(signedToken);
+    }
+
+    @Benchmark
+    public String getJWKS() {
+        return tokenHandler.getJWKS("benchmark");
+    }
+
+    @Benchmark
+    public ByteBuffer getJWKSBytes() {
+        return tokenHandler.getJWKSBytes("benchmark");
+    }
+
+    /**
+     * What {@code getJWKS} did before the document was cached: encode the key and serialize with a new Gson every time.
+     */
+    @Benchmark
+    public String getJWKSUncached() {
+        var publicKey = (RSAPublicKey) tokenHandler.getPublicKey();
+        var key = new LinkedHashMap<String, String>();
+        key.put("kty", publicKey.getAlgorithm());
+        key.put("e", Base64.getUrlEncoder().encodeToString(publicKey.getPublicExponent().toByteArray()));
+        key.put("use", "sig");
+        key.put("kid", "benchmark");
+        key.put("alg", "RS256");
+        key.put("n", Base64.getUrlEncoder().encodeToString(publicKey.getModulus().toByteArray()));
+        return new Gson().toJson(Map.of("keys", List.of(key)));
+    }
+}
@@ -0,0 +1,60 @@
+package no.nav.benchmarks;
+
+import no.nav.tokentest.TokenClaims;
+import no.nav.tokentest.TokenHandler;
+import no.nav.tokentest.TokenHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One handler shared by every benchmark thread, as in a load test. Throughput should grow with the thread count; run
+ * with {@code -t 1} and compare to see how well it scales on a given machine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+public class TokenHandlerConcurrencyBenchmark {
+    private TokenHandler tokenHandler;
+    private TokenHeaders headers;
+    private TokenClaims claims;
+    private String signedToken;
+
+    @Setup
+    public void setup() {
+        tokenHandler = new TokenHandler(true);
+        headers = TokenHeaders.builder().withKid("benchmark").build();
+        claims = TokenClaims.builder().withDefaultClaims()
+                .withClaim("sub", "benchmark")
+                .withClaim("aud", "benchmarks")
+                .withClaim("exp", Instant.now().plus(1, ChronoUnit.DAYS).getEpochSecond())
+                .build();
+        signedToken = tokenHandler.getSignedToken(headers, claims);
+    }
+
+    @Benchmark
+    public String getSignedToken() {
+        return tokenHandler.getSignedToken(headers, claims);
+    }
+
+    @Benchmark
+    public Object validateAndParseToken() {
+        return tokenHandler.validateAndParseToken(signedToken);
+    }
+}
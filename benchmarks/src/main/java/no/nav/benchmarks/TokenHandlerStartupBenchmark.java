@@ -0,0 +1,46 @@
+package no.nav.benchmarks;
+
+import no.nav.tokentest.TokenHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of building a handler with the static key, as a test suite does once per test class.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenHandlerStartupBenchmark {
+
+    @Benchmark
+    public TokenHandler staticKeyPair() {
+        return new TokenHandler(true);
+    }
+
+    /**
+     * What {@code new TokenHandler(true)} did before the key pair was shared: open and decrypt the keystore every time.
+     */
+    @Benchmark
+    public TokenHandler staticKeyPairFromKeystore() throws Exception {
+        try (InputStream is = TokenHandler.class.getResourceAsStream("/teststatkeystore.jks")) {
+            var keystore = KeyStore.getInstance(KeyStore.getDefaultType());
+            keystore.load(is, "test1234".toCharArray());
+            var privateKey = (PrivateKey) keystore.getKey("teststatkey", "test1234".toCharArray());
+            var publicKey = keystore.getCertificate("teststatkey").getPublicKey();
+            return new TokenHandler(new KeyPair(publicKey, privateKey));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package no.nav.idvalidator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Validates fødselsnummer, D-nummer (day + 40) and H-nummer (month + 40): both mod-11 control digits, and that the
+ * birth date exists in the century given by the individual number.
+ */
+public class FodselsnummerValidator extends IdnummerValidator {
+    private static final int LENGDE = 11;
+    // The control digit itself is included with weight 1, so a valid number always sums to a multiple of 11
+    private static final int[] VEKTTALL_K1 = {3, 7, 6, 1, 8, 9, 4, 5, 2, 1, 0};
+    private static final int[] VEKTTALL_K2 = {5, 4, 3, 2, 7, 6, 5, 4, 3, 2, 1};
+
+    @Override
+    public boolean test(String fnr) {
+        return test((CharSequence) fnr);
+    }
+
+    @Override
+    public boolean test(CharSequence fnr) {
+        return fnr != null && fnr.length() == LENGDE && gyldig(fnr::charAt);
+    }
+
+    @Override
+    public boolean test(char[] fnr, int offset, int length) {
+        return length == LENGDE && gyldig(i -> fnr[offset + i]);
+    }
+
+    @Override
+    public boolean test(byte[] fnr, int offset, int length) {
+        return length == LENGDE && gyldig(i -> fnr[offset + i]);
+    }
+
+    @Override
+    public boolean test(ByteBuffer fnr, int offset, int length) {
+        return length == LENGDE && gyldig(i -> fnr.get(offset + i));
+    }
+
+    private static boolean gyldig(Tegn fnr) {
+        int sum1 = 0;
+        int sum2 = 0;
+        int tall = 0;
+        for (int i = 0; i < LENGDE; i++) {
+            int siffer = fnr.at(i) - '0';
+            if (siffer < 0 || siffer > 9) return false;
+            sum1 += siffer * VEKTTALL_K1[i];
+            sum2 += siffer * VEKTTALL_K2[i];
+            if (i < 9) tall = tall * 10 + siffer;
+        }
+        return gyldig(sum1, sum2, tall);
+    }
+
+    private static boolean gyldig(int sum1, int sum2, int tall) {
+        return sum1 % 11 == 0 && sum2 % 11 == 0 && gyldigDato(tall);
+    }
+
+    /**
+     * @param tall the first nine digits, ddmmååiii
+     */
+    private static boolean gyldigDato(int tall) {
+        int individnummer = tall % 1000;
+        int aar = tall / 1000 % 100;
+        int maaned = tall / 100_000 % 100;
+        int dag = tall / 10_000_000;
+        if (dag > 40) dag -= 40;
+        if (maaned > 40) maaned -= 40;
+        int aarhundre = aarhundre(individnummer, aar);
+        if (aarhundre < 0 || maaned < 1 || maaned > 12 || dag < 1) return false;
+        return dag <= dagerIMaaned(maaned, aarhundre + aar);
+    }
+
+    private static int aarhundre(int individnummer, int aar) {
+        if (individnummer < 500) return 1900;
+        if (individnummer < 750 && aar >= 54) return 1800;
+        if (aar < 40) return 2000;
+        if (individnummer >= 900) return 1900;
+        return -1;
+    }
+
+    private static int dagerIMaaned(int maaned, int aar) {
+        return switch (maaned) {
+            case 2 -> aar % 4 == 0 && (aar % 100 != 0 || aar % 400 == 0) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package no.nav.idvalidator;
+
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.function.Predicate;
+
+/**
+ * Common entry points for the identity number validators. Every variant validates in a single pass without
+ * allocating, so the slice and buffer overloads can be used straight on file or network buffers.
+ */
+public abstract class IdnummerValidator implements Predicate<String> {
+
+    public abstract boolean test(CharSequence idnr);
+
+    public abstract boolean test(char[] idnr, int offset, int length);
+
+    /**
+     * Validates ASCII digits in {@code idnr[offset, offset + length)}.
+     */
+    public abstract boolean test(byte[] idnr, int offset, int length);
+
+    /**
+     * Validates ASCII digits at the absolute indexes {@code [offset, offset + length)}, leaving the buffer position
+     * untouched.
+     */
+    public abstract boolean test(ByteBuffer idnr, int offset, int length);
+
+    /**
+     * Validates every delimited record between the position and limit of {@code records}, typically a memory-mapped
+     * file, and sets bit {@code n} of {@code result} for record {@code n} when it is valid. A trailing delimiter does
+     * not start a new record, and with {@code '\n'} as delimiter a trailing {@code '\r'} is stripped from each record.
+     * The buffer position is left untouched.
+     *
+     * @return the number of records
+     */
+    public int testAll(ByteBuffer records, byte delimiter, BitSet result) {
+        int start = records.position();
+        int limit = records.limit();
+        int record = 0;
+        while (start < limit) {
+            int end = slutt(records, start, limit, delimiter);
+            result.set(record++, test(records, start, lengde(records, start, end, delimiter)));
+            start = end + 1;
+        }
+        return record;
+    }
+
+    /**
+     * Like {@link #testAll(ByteBuffer, byte, BitSet)}, writing into {@code result}, which must have room for every
+     * record.
+     *
+     * @return the number of records
+     */
+    public int testAll(ByteBuffer records, byte delimiter, boolean[] result) {
+        int start = records.position();
+        int limit = records.limit();
+        int record = 0;
+        while (start < limit) {
+            int end = slutt(records, start, limit, delimiter);
+            result[record++] = test(records, start, lengde(records, start, end, delimiter));
+            start = end + 1;
+        }
+        return record;
+    }
+
+    /**
+     * A validator that gives the same answers as this one and reports each call, with its duration, to
+     * {@code listener}. This validator is left as it is, so it can still be used where timing is not wanted.
+     */
+    public IdnummerValidator instrumented(ValidationListener listener) {
+        return new InstrumentedIdnummerValidator(this, listener);
+    }
+
+    /**
+     * The character at an index of the number, whatever it is stored in, so the validators can share one checksum loop
+     * across all the overloads. The loops are small enough to be inlined into each overload, where the lambda does not
+     * escape and is not allocated.
+     */
+    @FunctionalInterface
+    interface Tegn {
+        int at(int index);
+    }
+
+    private static int slutt(ByteBuffer records, int start, int limit, byte delimiter) {
+        int end = start;
+        while (end < limit && records.get(end) != delimiter) end++;
+        return end;
+    }
+
+    private static int lengde(ByteBuffer records, int start, int end, byte delimiter) {
+        if (delimiter == '\n' && end > start && records.get(end - 1) == '\r') return end - start - 1;
+        return end - start;
+    }
+}
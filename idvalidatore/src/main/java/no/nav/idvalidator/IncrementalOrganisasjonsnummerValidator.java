@@ -0,0 +1,88 @@
+package no.nav.idvalidator;
+
+/**
+ * Validates an organisasjonsnummer fed one character or one chunk at a time, for streaming parsers that should not
+ * build a {@link String} first. Keeps the weighted sum as it goes, so {@link #isValid()} is a constant-time check at the
+ * end of the field. Gives the same answers as {@link OrganisasjonsnummerValidator}.
+ * <p>
+ * Not thread-safe: use one instance per parser, and {@link #reset()} it before each field.
+ * <pre>{@code
+ * validator.reset();
+ * while (parser.inField()) validator.accept(parser.next());
+ * if (validator.isValid()) ...
+ * }</pre>
+ */
+public class IncrementalOrganisasjonsnummerValidator {
+    private int lengde;
+    private int sum;
+    private int kontrollsiffer;
+    private boolean ugyldig;
+
+    public void reset() {
+        lengde = 0;
+        sum = 0;
+        kontrollsiffer = 0;
+        ugyldig = false;
+    }
+
+    /**
+     * Takes the next character, as a {@code char} or an ASCII byte.
+     *
+     * @return {@code false} once the input can no longer become a valid number, so the caller can stop feeding it
+     */
+    public boolean accept(int tegn) {
+        if (ugyldig) return false;
+        int siffer = tegn - '0';
+        if (siffer < 0 || siffer > 9 || lengde == OrganisasjonsnummerValidator.LENGDE) {
+            ugyldig = true;
+            return false;
+        }
+        if (lengde < OrganisasjonsnummerValidator.LENGDE - 1) {
+            sum += siffer * OrganisasjonsnummerValidator.VEKTTALL[lengde];
+        } else {
+            kontrollsiffer = siffer;
+        }
+        lengde++;
+        return true;
+    }
+
+    /**
+     * Takes {@code length} ASCII characters from {@code chunk}, starting at {@code offset}.
+     *
+     * @return {@code false} once the input can no longer become a valid number
+     */
+    public boolean accept(byte[] chunk, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (!accept(chunk[i])) return false;
+        }
+        return !ugyldig;
+    }
+
+    /**
+     * Takes the characters of {@code chunk} from {@code start} to {@code end}, exclusive.
+     *
+     * @return {@code false} once the input can no longer become a valid number
+     */
+    public boolean accept(CharSequence chunk, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!accept(chunk.charAt(i))) return false;
+        }
+        return !ugyldig;
+    }
+
+    /**
+     * Whether the characters since the last {@link #reset()} form a valid organisasjonsnummer.
+     */
+    public boolean isValid() {
+        return !ugyldig && lengde == OrganisasjonsnummerValidator.LENGDE
+                && OrganisasjonsnummerValidator.gyldigKontrollsiffer(sum, kontrollsiffer);
+    }
+
+    /**
+     * The number of characters taken since the last {@link #reset()}, not counting the one that made the input
+     * invalid or any after it.
+     */
+    public int length() {
+        return lengde;
+    }
+}
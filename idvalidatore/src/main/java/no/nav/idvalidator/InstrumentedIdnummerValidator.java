@@ -0,0 +1,64 @@
+package no.nav.idvalidator;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Times every call to another validator and reports it to a listener. Kept apart from the validators themselves so
+ * that uninstrumented validation pays nothing for it.
+ */
+final class InstrumentedIdnummerValidator extends IdnummerValidator {
+    private final IdnummerValidator validator;
+    private final String name;
+    private final ValidationListener listener;
+
+    InstrumentedIdnummerValidator(IdnummerValidator validator, ValidationListener listener) {
+        this.validator = validator;
+        this.name = validator.getClass().getSimpleName();
+        this.listener = listener;
+    }
+
+    @Override
+    public boolean test(String idnr) {
+        long start = System.nanoTime();
+        boolean gyldig = validator.test(idnr);
+        listener.onValidation(name, gyldig, System.nanoTime() - start);
+        return gyldig;
+    }
+
+    @Override
+    public boolean test(CharSequence idnr) {
+        long start = System.nanoTime();
+        boolean gyldig = validator.test(idnr);
+        listener.onValidation(name, gyldig, System.nanoTime() - start);
+        return gyldig;
+    }
+
+    @Override
+    public boolean test(char[] idnr, int offset, int length) {
+        long start = System.nanoTime();
+        boolean gyldig = validator.test(idnr, offset, length);
+        listener.onValidation(name, gyldig, System.nanoTime() - start);
+        return gyldig;
+    }
+
+    @Override
+    public boolean test(byte[] idnr, int offset, int length) {
+        long start = System.nanoTime();
+        boolean gyldig = validator.test(idnr, offset, length);
+        listener.onValidation(name, gyldig, System.nanoTime() - start);
+        return gyldig;
+    }
+
+    @Override
+    public boolean test(ByteBuffer idnr, int offset, int length) {
+        long start = System.nanoTime();
+        boolean gyldig = validator.test(idnr, offset, length);
+        listener.onValidation(name, gyldig, System.nanoTime() - start);
+        return gyldig;
+    }
+
+    @Override
+    public IdnummerValidator instrumented(ValidationListener listener) {
+        return new InstrumentedIdnummerValidator(validator, listener);
+    }
+}
@@ -0,0 +1,116 @@
+package no.nav.idvalidator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * Validates many fixed-width organisasjonsnummer records from one contiguous byte array. Record {@code n} starts at
+ * {@code offset + n * recordLength} and holds the nine ASCII digits first; anything after them in the record, such as
+ * a newline or padding, is ignored.
+ * <p>
+ * Two kernels are available. The scalar kernel reads the first eight digits as one {@code long} and checks and weighs
+ * them with plain integer arithmetic (SWAR). The vector kernel uses the incubating Vector API, one 128-bit vector per
+ * record, and needs {@code --add-modules jdk.incubator.vector}. On the hardware we have measured, the scalar kernel is
+ * the faster of the two, so {@link #preferred()} picks it unless the JVM is started with
+ * {@code -Dno.nav.idvalidator.batchKernel=vector}, and falls back to it when the Vector API is missing. The choice is
+ * made once, at class initialisation. Compare the two with {@code OrganisasjonsnummerBatchBenchmark}.
+ */
+public abstract class OrganisasjonsnummerBatchValidator {
+    public static final String KERNEL_PROPERTY = "no.nav.idvalidator.batchKernel";
+
+    static final int LENGDE = 9;
+
+    private static final OrganisasjonsnummerBatchValidator SCALAR = new Scalar();
+    private static final OrganisasjonsnummerBatchValidator VECTOR = loadVector();
+    private static final OrganisasjonsnummerBatchValidator PREFERRED =
+            "vector".equals(System.getProperty(KERNEL_PROPERTY)) && VECTOR != null ? VECTOR : SCALAR;
+
+    OrganisasjonsnummerBatchValidator() {
+    }
+
+    public static OrganisasjonsnummerBatchValidator preferred() {
+        return PREFERRED;
+    }
+
+    public static OrganisasjonsnummerBatchValidator scalar() {
+        return SCALAR;
+    }
+
+    /**
+     * @throws UnsupportedOperationException if the JVM runs without {@code jdk.incubator.vector}
+     */
+    public static OrganisasjonsnummerBatchValidator vector() {
+        if (VECTOR == null) throw new UnsupportedOperationException("The jdk.incubator.vector module is not available");
+        return VECTOR;
+    }
+
+    public static boolean vectorSupported() {
+        return VECTOR != null;
+    }
+
+    /**
+     * Writes the result for record {@code n} to {@code result[n]}.
+     *
+     * @return the number of valid records
+     */
+    public int testFixedWidth(byte[] data, int offset, int recordLength, int count, boolean[] result) {
+        if (recordLength < LENGDE) throw new IllegalArgumentException("recordLength must be at least " + LENGDE);
+        if (count < 0 || offset < 0 || (long) offset + (long) recordLength * count > data.length + (long) recordLength - LENGDE) {
+            throw new IndexOutOfBoundsException(count + " records of " + recordLength + " bytes from " + offset
+                    + " do not fit in " + data.length + " bytes");
+        }
+        if (result.length < count) throw new IndexOutOfBoundsException("result has room for " + result.length + " of " + count + " records");
+        return validate(data, offset, recordLength, count, result);
+    }
+
+    abstract int validate(byte[] data, int offset, int recordLength, int count, boolean[] result);
+
+    private static OrganisasjonsnummerBatchValidator loadVector() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) return null;
+        try {
+            // Loaded reflectively so this class never links against the incubator module when it is absent
+            return (OrganisasjonsnummerBatchValidator) Class.forName("no.nav.idvalidator.VectorOrganisasjonsnummerBatchValidator")
+                    .getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    static final class Scalar extends OrganisasjonsnummerBatchValidator {
+        private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+        private static final long NULLER = 0x3030303030303030L;
+        private static final long OVER_NI = 0x4646464646464646L;
+        private static final long TOPPBITER = 0x8080808080808080L;
+        private static final long ANNENHVER_BYTE = 0x00FF00FF00FF00FFL;
+        // Weights of digits 0, 2, 4, 6 and 1, 3, 5, 7, reversed so the products add up in the top 16 bits
+        private static final long PARTALLSVEKTER = 0x0003_0007_0005_0003L;
+        private static final long ODDETALLSVEKTER = 0x0002_0006_0004_0002L;
+
+        @Override
+        int validate(byte[] data, int offset, int recordLength, int count, boolean[] result) {
+            int valid = 0;
+            for (int record = 0, start = offset; record < count; record++, start += recordLength) {
+                boolean gyldig = test(data, start);
+                result[record] = gyldig;
+                if (gyldig) valid++;
+            }
+            return valid;
+        }
+
+        static boolean test(byte[] data, int start) {
+            long tegn = (long) LONG.get(data, start);
+            long sifre = tegn - NULLER;
+            int kontrollsiffer = data[start + LENGDE - 1] - '0';
+            // A byte below '0' gets its top bit set by the subtraction, above '9' by the addition
+            if (((tegn | (tegn + OVER_NI) | sifre) & TOPPBITER) != 0 || kontrollsiffer < 0 || kontrollsiffer > 9) {
+                return false;
+            }
+            long partall = sifre & ANNENHVER_BYTE;
+            long oddetall = (sifre >>> 8) & ANNENHVER_BYTE;
+            int sum = (int) ((partall * PARTALLSVEKTER) >>> 48) + (int) ((oddetall * ODDETALLSVEKTER) >>> 48);
+            // Counting the control digit with weight 1 makes every valid number a multiple of 11
+            return (sum + kontrollsiffer) % 11 == 0;
+        }
+    }
+}
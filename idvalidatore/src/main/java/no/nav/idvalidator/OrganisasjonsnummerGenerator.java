@@ -0,0 +1,126 @@
+package no.nav.idvalidator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+/**
+ * Generates organisasjonsnummer for test data by computing the control digit from the first eight digits, instead of
+ * trying random numbers until one validates. Numbers are {@code int}s, since nine digits always fit, and streams are
+ * {@link IntStream}s, so nothing is boxed. Ranges are given as prefixes, the first eight digits as a number, so
+ * {@code [0, 100_000_000)} covers the whole space; roughly one prefix in eleven has no valid control digit and is
+ * skipped.
+ */
+public final class OrganisasjonsnummerGenerator {
+    public static final int PREFIXES = 100_000_000;
+
+    private static final int LENGDE = OrganisasjonsnummerValidator.LENGDE;
+    private static final int BUFFER = 64 * 1024;
+
+    private OrganisasjonsnummerGenerator() {
+    }
+
+    /**
+     * @param prefix the first eight digits, from 0 up to {@link #PREFIXES}
+     * @return the control digit that makes {@code prefix} a valid number, or -1 if no digit does
+     */
+    public static int controlDigit(int prefix) {
+        int sum = 0;
+        int rest = prefix;
+        for (int i = LENGDE - 2; i >= 0; i--) {
+            sum += rest % 10 * OrganisasjonsnummerValidator.VEKTTALL[i];
+            rest /= 10;
+        }
+        int kontrollsiffer = (11 - sum % 11) % 11;
+        return kontrollsiffer == 10 ? -1 : kontrollsiffer;
+    }
+
+    /**
+     * Every valid number, in ascending order. Call {@code parallel()} on the stream to spread the work over the common
+     * pool.
+     */
+    public static IntStream valid() {
+        return valid(0, PREFIXES);
+    }
+
+    /**
+     * The valid numbers with a prefix in {@code [fromPrefix, toPrefix)}, in ascending order.
+     */
+    public static IntStream valid(int fromPrefix, int toPrefix) {
+        return IntStream.range(checkFrom(fromPrefix, toPrefix), toPrefix).mapMulti((prefix, numbers) -> {
+            int kontrollsiffer = controlDigit(prefix);
+            if (kontrollsiffer >= 0) numbers.accept(prefix * 10 + kontrollsiffer);
+        });
+    }
+
+    /**
+     * Shard {@code shard} of {@code shards} equally large, disjoint ranges that together cover every valid number, for
+     * generating on several threads or machines.
+     */
+    public static IntStream shard(int shard, int shards) {
+        if (shards <= 0 || shard < 0 || shard >= shards) {
+            throw new IllegalArgumentException("shard must be in [0, " + shards + "), was " + shard);
+        }
+        return valid((int) ((long) PREFIXES * shard / shards), (int) ((long) PREFIXES * (shard + 1) / shards));
+    }
+
+    /**
+     * One invalid number per prefix in {@code [fromPrefix, toPrefix)}: nine digits with the wrong control digit, for
+     * negative tests.
+     */
+    public static IntStream invalid(int fromPrefix, int toPrefix) {
+        return IntStream.range(checkFrom(fromPrefix, toPrefix), toPrefix)
+                .map(prefix -> prefix * 10 + (controlDigit(prefix) + 1) % 10);
+    }
+
+    /**
+     * The number as nine digits, with leading zeros.
+     */
+    public static String format(int orgnr) {
+        var tegn = new byte[LENGDE];
+        skrivSifre(orgnr, tegn, 0);
+        return new String(tegn, 0, LENGDE, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Writes each number as nine ASCII digits and a newline, through one reused buffer. Consumes the stream
+     * sequentially; for parallel generation write each {@link #shard(int, int)} to its own stream.
+     *
+     * @return the number of numbers written
+     */
+    public static long write(IntStream numbers, OutputStream out) throws IOException {
+        var buffer = new byte[BUFFER - BUFFER % (LENGDE + 1)];
+        int posisjon = 0;
+        long antall = 0;
+        var iterator = numbers.iterator();
+        while (iterator.hasNext()) {
+            skrivSifre(iterator.nextInt(), buffer, posisjon);
+            buffer[posisjon + LENGDE] = '\n';
+            posisjon += LENGDE + 1;
+            antall++;
+            if (posisjon == buffer.length) {
+                out.write(buffer, 0, posisjon);
+                posisjon = 0;
+            }
+        }
+        out.write(buffer, 0, posisjon);
+        return antall;
+    }
+
+    private static void skrivSifre(int orgnr, byte[] tegn, int start) {
+        int rest = orgnr;
+        for (int i = start + LENGDE - 1; i >= start; i--) {
+            tegn[i] = (byte) ('0' + rest % 10);
+            rest /= 10;
+        }
+    }
+
+    private static int checkFrom(int fromPrefix, int toPrefix) {
+        if (fromPrefix < 0 || toPrefix > PREFIXES || fromPrefix > toPrefix) {
+            throw new IllegalArgumentException("Prefixes must satisfy 0 <= from <= to <= " + PREFIXES
+                    + ", were " + fromPrefix + " and " + toPrefix);
+        }
+        return fromPrefix;
+    }
+}
@@ -0,0 +1,203 @@
+package no.nav.idvalidator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable set of valid organisasjonsnummer, stored as a sorted array of {@code int}s: four bytes per number,
+ * against some sixty for a {@code HashSet<String>}, plus a fixed 240 KB index of where each range of numbers starts.
+ * Lookups are a binary search within one such range, with no boxing and no string hashing, and a number with a wrong
+ * control digit is rejected before searching.
+ * <p>
+ * Sets are built with {@link #builder()}, which validates every number and keeps them in a plain {@code int[]}, or
+ * mapped from a file written with {@link #write(Path)}, in which case the numbers stay off the heap. Safe to share
+ * between threads.
+ */
+public final class OrganisasjonsnummerSet {
+    private static final int MAGIC = 0x4F524731; // "ORG1"
+    private static final int HEADER = 2 * Integer.BYTES;
+    private static final int LENGDE = OrganisasjonsnummerValidator.LENGDE;
+    // Numbers that share their top bits share a bucket; 61 036 buckets cover the nine-digit space
+    private static final int BUCKET_SHIFT = 14;
+
+    // Exactly one of these is set: the array for sets built on the heap, the buffer for mapped ones
+    private final int[] array;
+    private final IntBuffer mapped;
+    private final int size;
+    // Bucket b holds the numbers from index starts[b] up to starts[b + 1]
+    private final int[] starts;
+
+    private OrganisasjonsnummerSet(int[] array, IntBuffer mapped, int size) {
+        this.array = array;
+        this.mapped = mapped;
+        this.size = size;
+        this.starts = new int[(OrganisasjonsnummerGenerator.PREFIXES * 10 - 1 >>> BUCKET_SHIFT) + 2];
+        int bucket = 0;
+        for (int i = 0; i < size; i++) {
+            int numberBucket = get(i) >>> BUCKET_SHIFT;
+            while (bucket <= numberBucket) starts[bucket++] = i;
+        }
+        while (bucket < starts.length) starts[bucket++] = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(int orgnr) {
+        return gyldig(orgnr) && indexOf(orgnr) >= 0;
+    }
+
+    /**
+     * @return {@code false} for anything that is not nine digits, without allocating
+     */
+    public boolean contains(CharSequence orgnr) {
+        if (orgnr == null || orgnr.length() != LENGDE) return false;
+        int tall = 0;
+        int sum = 0;
+        for (int i = 0; i < LENGDE - 1; i++) {
+            int siffer = orgnr.charAt(i) - '0';
+            if (siffer < 0 || siffer > 9) return false;
+            tall = tall * 10 + siffer;
+            sum += siffer * OrganisasjonsnummerValidator.VEKTTALL[i];
+        }
+        int kontrollsiffer = orgnr.charAt(LENGDE - 1) - '0';
+        return OrganisasjonsnummerValidator.gyldigKontrollsiffer(sum, kontrollsiffer) && indexOf(tall * 10 + kontrollsiffer) >= 0;
+    }
+
+    /**
+     * The numbers in ascending order.
+     */
+    public IntStream stream() {
+        return array != null ? Arrays.stream(array) : IntStream.range(0, size).map(mapped::get);
+    }
+
+    /**
+     * Writes the set in the format {@link #map(Path)} reads: a header followed by the sorted numbers, big-endian.
+     */
+    public void write(Path file) throws IOException {
+        var buffer = ByteBuffer.allocate(HEADER + size * Integer.BYTES);
+        buffer.putInt(MAGIC).putInt(size);
+        if (array != null) buffer.asIntBuffer().put(array);
+        else buffer.asIntBuffer().put(mapped.duplicate().rewind());
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Memory-maps a file written by {@link #write(Path)}. Checks once that the numbers are valid, sorted and unique, so
+     * lookups can trust them.
+     *
+     * @throws IOException if the file cannot be read or is not a valid set
+     */
+    public static OrganisasjonsnummerSet map(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER) throw new IOException(file + " is too short to be an organisasjonsnummer set");
+            var mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int count = mapped.getInt(Integer.BYTES);
+            if (mapped.getInt(0) != MAGIC || count < 0 || channel.size() != HEADER + (long) count * Integer.BYTES) {
+                throw new IOException(file + " is not an organisasjonsnummer set");
+            }
+            var numbers = mapped.position(HEADER).slice().asIntBuffer();
+            int forrige = -1;
+            for (int i = 0; i < count; i++) {
+                int orgnr = numbers.get(i);
+                if (orgnr <= forrige || !gyldig(orgnr)) {
+                    throw new IOException(file + " has an invalid or out-of-order number at index " + i);
+                }
+                forrige = orgnr;
+            }
+            return new OrganisasjonsnummerSet(null, numbers.asReadOnlyBuffer(), count);
+        }
+    }
+
+    private int indexOf(int orgnr) {
+        int bucket = orgnr >>> BUCKET_SHIFT;
+        int lav = starts[bucket];
+        int hoy = starts[bucket + 1] - 1;
+        if (array != null) {
+            int index = Arrays.binarySearch(array, lav, hoy + 1, orgnr);
+            return index >= 0 ? index : -1;
+        }
+        while (lav <= hoy) {
+            int midt = (lav + hoy) >>> 1;
+            int tall = mapped.get(midt);
+            if (tall < orgnr) lav = midt + 1;
+            else if (tall > orgnr) hoy = midt - 1;
+            else return midt;
+        }
+        return -1;
+    }
+
+    private int get(int index) {
+        return array != null ? array[index] : mapped.get(index);
+    }
+
+    private static boolean gyldig(int orgnr) {
+        return orgnr >= 0 && orgnr < OrganisasjonsnummerGenerator.PREFIXES * 10
+                && OrganisasjonsnummerGenerator.controlDigit(orgnr / 10) == orgnr % 10;
+    }
+
+    /**
+     * Collects numbers into a growing {@code int[]}, then sorts and removes duplicates once in {@link #build()}. Not
+     * thread-safe.
+     */
+    public static final class Builder {
+        private int[] numbers = new int[1024];
+        private int size;
+
+        private Builder() {
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code orgnr} is not a valid nine-digit organisasjonsnummer
+         */
+        public Builder add(int orgnr) {
+            if (!gyldig(orgnr)) throw new IllegalArgumentException("Not a valid organisasjonsnummer: " + orgnr);
+            if (size == numbers.length) numbers = Arrays.copyOf(numbers, size * 2);
+            numbers[size++] = orgnr;
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code orgnr} is not nine digits with a valid control digit
+         */
+        public Builder add(CharSequence orgnr) {
+            if (orgnr == null || orgnr.length() != LENGDE) {
+                throw new IllegalArgumentException("Not a valid organisasjonsnummer: " + orgnr);
+            }
+            int tall = 0;
+            for (int i = 0; i < LENGDE; i++) {
+                int siffer = orgnr.charAt(i) - '0';
+                if (siffer < 0 || siffer > 9) throw new IllegalArgumentException("Not a valid organisasjonsnummer: " + orgnr);
+                tall = tall * 10 + siffer;
+            }
+            return add(tall);
+        }
+
+        public Builder addAll(IntStream orgnrs) {
+            orgnrs.sequential().forEach(this::add);
+            return this;
+        }
+
+        public OrganisasjonsnummerSet build() {
+            var sortert = Arrays.copyOf(numbers, size);
+            Arrays.sort(sortert);
+            int unike = 0;
+            for (int i = 0; i < sortert.length; i++) {
+                if (i == 0 || sortert[i] != sortert[i - 1]) sortert[unike++] = sortert[i];
+            }
+            return new OrganisasjonsnummerSet(Arrays.copyOf(sortert, unike), null, unike);
+        }
+    }
+}
@@ -1,20 +1,77 @@
 package no.nav.idvalidator;
 
-import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.IntStream;
+import java.nio.ByteBuffer;
 
-public class OrganisasjonsnummerValidator implements Predicate<String> {
+public class OrganisasjonsnummerValidator extends IdnummerValidator {
+    static final int LENGDE = 9;
+    static final int[] VEKTTALL = {3, 2, 7, 6, 5, 4, 3, 2};
 
+    /**
+     * Checks length, digits and the mod-11 control digit in a single pass over the chars, without allocating.
+     */
     @Override
     public boolean test(String orgnr) {
-        if(orgnr == null ||!orgnr.matches("\\d{9}") ) return false;
-        List<Integer> vekttall = List.of(3,2,7,6,5,4,3,2);
-        int sum = IntStream.range(0,orgnr.length()-1)
-                .map(i -> (Integer.parseInt(orgnr.substring(i, i + 1)) * vekttall.get(i)))
-                .sum();
+        return test((CharSequence) orgnr);
+    }
+
+    @Override
+    public boolean test(CharSequence orgnr) {
+        return orgnr != null && orgnr.length() == LENGDE && gyldig(orgnr::charAt);
+    }
+
+    @Override
+    public boolean test(char[] orgnr, int offset, int length) {
+        return length == LENGDE && gyldig(i -> orgnr[offset + i]);
+    }
+
+    @Override
+    public boolean test(byte[] orgnr, int offset, int length) {
+        return length == LENGDE && gyldig(i -> orgnr[offset + i]);
+    }
+
+    @Override
+    public boolean test(ByteBuffer orgnr, int offset, int length) {
+        return length == LENGDE && gyldig(i -> orgnr.get(offset + i));
+    }
+
+    /**
+     * Validates like {@link #test(CharSequence)}, but tells why a number is rejected and which control digit the first
+     * eight digits call for, in one pass and without allocating.
+     *
+     * @return a result to decode with {@link ValidationReason#of(int)} and
+     * {@link ValidationReason#expectedControlDigit(int)}
+     */
+    public int validate(CharSequence orgnr) {
+        if (orgnr == null) return ValidationReason.result(ValidationReason.NULL, -1);
+        if (orgnr.length() != LENGDE) return ValidationReason.result(ValidationReason.WRONG_LENGTH, -1);
+        int sum = 0;
+        for (int i = 0; i < LENGDE - 1; i++) {
+            int siffer = orgnr.charAt(i) - '0';
+            if (siffer < 0 || siffer > 9) return ValidationReason.result(ValidationReason.NON_DIGIT, -1);
+            sum += siffer * VEKTTALL[i];
+        }
+        int rest = sum % 11;
+        int forventet = rest == 0 ? 0 : 11 - rest;
+        if (forventet == 10) return ValidationReason.result(ValidationReason.NO_VALID_CONTROL_DIGIT, -1);
+        int kontrollsiffer = orgnr.charAt(LENGDE - 1) - '0';
+        if (kontrollsiffer < 0 || kontrollsiffer > 9) return ValidationReason.result(ValidationReason.NON_DIGIT, forventet);
+        if (kontrollsiffer != forventet) return ValidationReason.result(ValidationReason.WRONG_CONTROL_DIGIT, forventet);
+        return ValidationReason.result(ValidationReason.VALID, forventet);
+    }
+
+    private static boolean gyldig(Tegn orgnr) {
+        int sum = 0;
+        for (int i = 0; i < LENGDE - 1; i++) {
+            int siffer = orgnr.at(i) - '0';
+            if (siffer < 0 || siffer > 9) return false;
+            sum += siffer * VEKTTALL[i];
+        }
+        return gyldigKontrollsiffer(sum, orgnr.at(LENGDE - 1) - '0');
+    }
+
+    static boolean gyldigKontrollsiffer(int sum, int kontrollsiffer) {
+        if (kontrollsiffer < 0 || kontrollsiffer > 9) return false;
         int rest = sum % 11;
-        if(rest== 0 && Integer.parseInt(orgnr.substring(orgnr.length()-1)) == rest) return true;
-        return Integer.parseInt(orgnr.substring(orgnr.length()-1))== 11 - rest;
+        return rest == 0 ? kontrollsiffer == 0 : kontrollsiffer == 11 - rest;
     }
 }
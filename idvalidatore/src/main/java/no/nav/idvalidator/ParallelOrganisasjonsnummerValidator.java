@@ -0,0 +1,273 @@
+package no.nav.idvalidator;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Validates newline-delimited files or streams of organisasjonsnummer by cutting them into chunks on line boundaries
+ * and validating the chunks in parallel on a {@link ForkJoinPool}. Files are memory-mapped; streams are read into one
+ * buffer per chunk. Results are combined in line order, so filtered output keeps the order of the input.
+ */
+public class ParallelOrganisasjonsnummerValidator {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final byte LINJESKIFT = '\n';
+
+    private final OrganisasjonsnummerValidator validator = new OrganisasjonsnummerValidator();
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public ParallelOrganisasjonsnummerValidator() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public ParallelOrganisasjonsnummerValidator(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive, was " + chunkSize);
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public ValidationCounts count(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return count(new FileChunks(channel));
+        }
+    }
+
+    public ValidationCounts count(InputStream in) throws IOException {
+        return count(new StreamChunks(in));
+    }
+
+    /**
+     * @return the 1-based line numbers of every invalid line, in ascending order
+     */
+    public long[] invalidLines(Path file) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return invalidLines(new FileChunks(channel));
+        }
+    }
+
+    /**
+     * @return the 1-based line numbers of every invalid line, in ascending order
+     */
+    public long[] invalidLines(InputStream in) throws IOException {
+        return invalidLines(new StreamChunks(in));
+    }
+
+    /**
+     * Writes every valid line, newline-terminated, to {@code validLines}.
+     */
+    public ValidationCounts filter(Path file, OutputStream validLines) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return filter(new FileChunks(channel), validLines);
+        }
+    }
+
+    /**
+     * Writes every valid line, newline-terminated, to {@code validLines}.
+     */
+    public ValidationCounts filter(InputStream in, OutputStream validLines) throws IOException {
+        return filter(new StreamChunks(in), validLines);
+    }
+
+    private ValidationCounts count(Chunks chunks) throws IOException {
+        long[] counts = new long[2];
+        run(chunks, false, chunk -> {
+            counts[0] += chunk.valid.cardinality();
+            counts[1] += chunk.records - chunk.valid.cardinality();
+        });
+        return new ValidationCounts(counts[0], counts[1]);
+    }
+
+    private long[] invalidLines(Chunks chunks) throws IOException {
+        var lines = new LineNumbers();
+        run(chunks, false, chunk -> {
+            for (int i = chunk.valid.nextClearBit(0); i < chunk.records; i = chunk.valid.nextClearBit(i + 1)) {
+                lines.add(lines.first + i);
+            }
+            lines.first += chunk.records;
+        });
+        return Arrays.copyOf(lines.numbers, lines.size);
+    }
+
+    private ValidationCounts filter(Chunks chunks, OutputStream validLines) throws IOException {
+        long[] counts = new long[2];
+        run(chunks, true, chunk -> {
+            counts[0] += chunk.valid.cardinality();
+            counts[1] += chunk.records - chunk.valid.cardinality();
+            try {
+                validLines.write(chunk.filtered, 0, chunk.filteredLength);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        validLines.flush();
+        return new ValidationCounts(counts[0], counts[1]);
+    }
+
+    /**
+     * Keeps at most two chunks per worker in flight, and hands the results to {@code consumer} in input order on the
+     * calling thread.
+     */
+    private void run(Chunks chunks, boolean filter, ChunkConsumer consumer) throws IOException {
+        int window = pool.getParallelism() * 2;
+        var inFlight = new ArrayDeque<ForkJoinTask<Chunk>>(window);
+        try {
+            ByteBuffer buffer;
+            while ((buffer = chunks.next()) != null) {
+                ByteBuffer records = buffer;
+                inFlight.add(pool.submit(() -> validate(records, filter)));
+                if (inFlight.size() >= window) consumer.accept(inFlight.poll().join());
+            }
+            while (!inFlight.isEmpty()) consumer.accept(inFlight.poll().join());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            inFlight.forEach(task -> task.cancel(false));
+        }
+    }
+
+    private Chunk validate(ByteBuffer records, boolean filter) {
+        var valid = new BitSet();
+        int count = validator.testAll(records, LINJESKIFT, valid);
+        var chunk = new Chunk(count, valid);
+        if (filter) copyValidLines(records, chunk);
+        return chunk;
+    }
+
+    private static void copyValidLines(ByteBuffer records, Chunk chunk) {
+        byte[] filtered = new byte[records.remaining() + 1];
+        int length = 0;
+        int start = records.position();
+        int limit = records.limit();
+        for (int record = 0; start < limit; record++) {
+            int end = start;
+            while (end < limit && records.get(end) != LINJESKIFT) end++;
+            if (chunk.valid.get(record)) {
+                records.get(start, filtered, length, end - start);
+                length += end - start;
+                filtered[length++] = LINJESKIFT;
+            }
+            start = end + 1;
+        }
+        chunk.filtered = filtered;
+        chunk.filteredLength = length;
+    }
+
+    public record ValidationCounts(long valid, long invalid) {
+        public long total() {
+            return valid + invalid;
+        }
+    }
+
+    private static final class Chunk {
+        private final int records;
+        private final BitSet valid;
+        private byte[] filtered;
+        private int filteredLength;
+
+        private Chunk(int records, BitSet valid) {
+            this.records = records;
+            this.valid = valid;
+        }
+    }
+
+    private static final class LineNumbers {
+        private long[] numbers = new long[64];
+        private int size;
+        private long first = 1;
+
+        private void add(long line) {
+            if (size == numbers.length) numbers = Arrays.copyOf(numbers, size * 2);
+            numbers[size++] = line;
+        }
+    }
+
+    private interface ChunkConsumer {
+        void accept(Chunk chunk);
+    }
+
+    private interface Chunks {
+        /**
+         * @return the next chunk, ending just after a newline unless it is the last one, or {@code null} at the end
+         */
+        ByteBuffer next() throws IOException;
+    }
+
+    private final class FileChunks implements Chunks {
+        private final FileChannel channel;
+        private final long size;
+        private long position;
+
+        private FileChunks(FileChannel channel) throws IOException {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            if (position >= size) return null;
+            long length = Math.min(chunkSize, size - position);
+            while (true) {
+                var mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                if (position + length == size) {
+                    position = size;
+                    return mapped;
+                }
+                for (int i = (int) length - 1; i >= 0; i--) {
+                    if (mapped.get(i) == LINJESKIFT) {
+                        position += i + 1;
+                        return mapped.slice(0, i + 1);
+                    }
+                }
+                // A single line longer than the chunk, which is not an organisasjonsnummer but still has to be read
+                length = Math.min(Math.min(length * 2, Integer.MAX_VALUE), size - position);
+            }
+        }
+    }
+
+    private final class StreamChunks implements Chunks {
+        private final InputStream in;
+        private byte[] rest = new byte[0];
+        private boolean eof;
+
+        private StreamChunks(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public ByteBuffer next() throws IOException {
+            if (eof && rest.length == 0) return null;
+            byte[] buffer = Arrays.copyOf(rest, Math.max(chunkSize, rest.length * 2));
+            int length = rest.length;
+            while (!eof) {
+                int read = in.read(buffer, length, buffer.length - length);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    length += read;
+                    if (length == buffer.length) break;
+                }
+            }
+            int end = length;
+            if (!eof) {
+                while (end > 0 && buffer[end - 1] != LINJESKIFT) end--;
+                if (end == 0) {
+                    rest = Arrays.copyOf(buffer, length);
+                    return next();
+                }
+            }
+            rest = Arrays.copyOfRange(buffer, end, length);
+            return end == 0 ? null : ByteBuffer.wrap(buffer, 0, end);
+        }
+    }
+}
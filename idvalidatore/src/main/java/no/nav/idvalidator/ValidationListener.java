@@ -0,0 +1,15 @@
+package no.nav.idvalidator;
+
+/**
+ * Told the outcome and duration of every call to an instrumented validator, for metrics. See
+ * {@link IdnummerValidator#instrumented(ValidationListener)}. Called on the validating thread, so it must be
+ * thread-safe and quick.
+ */
+@FunctionalInterface
+public interface ValidationListener {
+
+    /**
+     * @param validator the simple class name of the validator, such as {@code OrganisasjonsnummerValidator}
+     */
+    void onValidation(String validator, boolean valid, long durationNanos);
+}
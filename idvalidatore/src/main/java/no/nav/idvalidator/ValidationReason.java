@@ -0,0 +1,40 @@
+package no.nav.idvalidator;
+
+/**
+ * Why {@link OrganisasjonsnummerValidator#validate(CharSequence)} accepted or rejected a number. The validation result
+ * is a plain {@code int} packing the reason and the expected control digit, so reporting errors allocates nothing;
+ * decode it with {@link #of(int)} and {@link #expectedControlDigit(int)}.
+ */
+public enum ValidationReason {
+    VALID,
+    NULL,
+    WRONG_LENGTH,
+    NON_DIGIT,
+    /**
+     * The first eight digits give a weighted sum with remainder 1, which would need the control digit 10, so no
+     * organisasjonsnummer can start with them.
+     */
+    NO_VALID_CONTROL_DIGIT,
+    WRONG_CONTROL_DIGIT;
+
+    private static final ValidationReason[] VALUES = values();
+
+    public static ValidationReason of(int result) {
+        return VALUES[result & 0xFF];
+    }
+
+    public static boolean isValid(int result) {
+        return (result & 0xFF) == VALID.ordinal();
+    }
+
+    /**
+     * @return the control digit the first eight digits call for, or -1 if they are not all digits or call for none
+     */
+    public static int expectedControlDigit(int result) {
+        return (result >>> 8) - 1;
+    }
+
+    static int result(ValidationReason reason, int expectedControlDigit) {
+        return (expectedControlDigit + 1) << 8 | reason.ordinal();
+    }
+}
@@ -0,0 +1,90 @@
+package no.nav;
+
+import no.nav.idvalidator.FodselsnummerValidator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FodselsnummerValidatorTest {
+    FodselsnummerValidator validator = new FodselsnummerValidator();
+
+    @Test
+    public void testGyldigeFodselsnummer() {
+        for (String fnr : gyldigeFodselsnummer())
+            assertTrue(validator.test(fnr), fnr + " er et gyldig fødselsnummer, og skulle gitt true som svar");
+    }
+
+    private List<String> gyldigeFodselsnummer() {
+        return List.of("01019012480",
+                "29020051386",
+                "31129949980",
+                "15067094090",
+                "01016060085",
+                "31011050185",
+                "28020100127");
+    }
+
+    @Test
+    public void testGyldigDNummer() {
+        assertTrue(validator.test("41018523459"));
+        assertTrue(validator.test("69120577794"));
+    }
+
+    @Test
+    public void testGyldigHNummer() {
+        assertTrue(validator.test("05439134528"));
+    }
+
+    @Test
+    public void testUgyldigeKontrollsifre() {
+        assertFalse(validator.test("01019012470"));
+        assertFalse(validator.test("01019012481"));
+        assertFalse(validator.test("01019012408"));
+    }
+
+    @Test
+    public void testUgyldigeDatoerMedGyldigeKontrollsifre() {
+        assertFalse(validator.test("30029012373"), "30. februar");
+        assertFalse(validator.test("29020012380"), "29. februar 1900");
+        assertFalse(validator.test("00019012360"), "dag 0");
+        assertFalse(validator.test("01139012328"), "måned 13");
+        assertFalse(validator.test("01019076055"), "individnummer 760 finnes ikke for 1990");
+    }
+
+    @Test
+    public void testUgyldigLengdeTegnOgNull() {
+        assertFalse(validator.test("0101901248"));
+        assertFalse(validator.test("010190124800"));
+        assertFalse(validator.test("0101901248A"));
+        assertFalse(validator.test("010190-2480"));
+        assertFalse(validator.test(""));
+        assertFalse(validator.test(null));
+    }
+
+    @Test
+    public void testCharSequenceOgSlices() {
+        for (String fnr : gyldigeFodselsnummer()) {
+            var medPadding = "x" + fnr + "y";
+            assertTrue(validator.test(new StringBuilder(fnr)), fnr);
+            assertTrue(validator.test(medPadding.toCharArray(), 1, 11), fnr);
+            assertTrue(validator.test(medPadding.getBytes(StandardCharsets.US_ASCII), 1, 11), fnr);
+            assertTrue(validator.test(ByteBuffer.wrap(medPadding.getBytes(StandardCharsets.US_ASCII)), 1, 11), fnr);
+        }
+    }
+
+    @Test
+    public void testAlleIBuffer() {
+        var buffer = ByteBuffer.wrap("01019012480\n30029012373\r\n41018523459".getBytes(StandardCharsets.US_ASCII));
+        var resultat = new boolean[3];
+
+        assertEquals(3, validator.testAll(buffer, (byte) '\n', resultat));
+        assertArrayEquals(new boolean[]{true, false, true}, resultat);
+    }
+}
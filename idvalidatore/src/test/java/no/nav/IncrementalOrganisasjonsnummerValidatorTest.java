@@ -0,0 +1,70 @@
+package no.nav;
+
+import no.nav.idvalidator.IncrementalOrganisasjonsnummerValidator;
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IncrementalOrganisasjonsnummerValidatorTest {
+    IncrementalOrganisasjonsnummerValidator validator = new IncrementalOrganisasjonsnummerValidator();
+
+    private boolean tegnForTegn(String orgnr) {
+        validator.reset();
+        for (int i = 0; i < orgnr.length(); i++) validator.accept(orgnr.charAt(i));
+        return validator.isValid();
+    }
+
+    @Test
+    public void testGyldigeOrganisasjonsnummer() {
+        for (String orgnr : List.of("974791854", "889640782", "971524960", "988305758"))
+            assertTrue(tegnForTegn(orgnr), orgnr + " er et gyldig organisasjonsnummer, og skulle gitt true som svar");
+    }
+
+    @Test
+    public void testUgyldigeOrganisasjonsnummer() {
+        for (String orgnr : List.of("", "88964078", "8896407820", "889640781", "88964A782", "889640740", " 889640782"))
+            assertFalse(tegnForTegn(orgnr), orgnr + " er et ugyldig organisasjonsnummer, og skulle gitt false som svar");
+    }
+
+    @Test
+    public void testStopperVedForsteUgyldigeTegn() {
+        validator.reset();
+
+        assertTrue(validator.accept('8'));
+        assertFalse(validator.accept('x'));
+        assertFalse(validator.accept('8'));
+        assertEquals(1, validator.length());
+    }
+
+    @Test
+    public void testBiterIFlereDeler() {
+        var json = "{\"orgnr\":\"889640782\"}".getBytes(StandardCharsets.US_ASCII);
+        validator.reset();
+
+        assertTrue(validator.accept(json, 10, 4));
+        assertFalse(validator.isValid());
+        assertTrue(validator.accept(json, 14, 5));
+        assertTrue(validator.isValid());
+
+        validator.reset();
+        assertTrue(validator.accept("orgnr=974791854", 6, 15));
+        assertTrue(validator.isValid());
+    }
+
+    @Test
+    public void testSammeSvarSomOrganisasjonsnummerValidator() {
+        var random = new Random(42);
+        var orgnrValidator = new OrganisasjonsnummerValidator();
+        for (int i = 0; i < 100_000; i++) {
+            var orgnr = Integer.toString(random.nextInt(1_000_000_000));
+            assertEquals(orgnrValidator.test(orgnr), tegnForTegn(orgnr), orgnr);
+        }
+    }
+}
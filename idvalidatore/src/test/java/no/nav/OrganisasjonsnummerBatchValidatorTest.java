@@ -0,0 +1,76 @@
+package no.nav;
+
+import no.nav.idvalidator.OrganisasjonsnummerBatchValidator;
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class OrganisasjonsnummerBatchValidatorTest {
+    private final OrganisasjonsnummerValidator validator = new OrganisasjonsnummerValidator();
+
+    private static List<OrganisasjonsnummerBatchValidator> kjerner() {
+        var kjerner = new ArrayList<OrganisasjonsnummerBatchValidator>();
+        kjerner.add(OrganisasjonsnummerBatchValidator.scalar());
+        if (OrganisasjonsnummerBatchValidator.vectorSupported()) kjerner.add(OrganisasjonsnummerBatchValidator.vector());
+        return kjerner;
+    }
+
+    @Test
+    public void testSammeSvarSomOrganisasjonsnummerValidator() {
+        var random = new Random(42);
+        int antall = 5_000;
+        var data = new byte[3 + antall * 10];
+        for (int i = 0; i < antall; i++) {
+            var orgnr = i % 3 == 0 ? "974791854" : String.format("%09d", random.nextInt(1_000_000_000));
+            if (i % 17 == 0) orgnr = orgnr.substring(0, 4) + "/" + orgnr.substring(5);
+            System.arraycopy(orgnr.getBytes(StandardCharsets.US_ASCII), 0, data, 3 + i * 10, 9);
+            data[3 + i * 10 + 9] = '\n';
+        }
+        var forventet = new boolean[antall];
+        int forventetGyldige = 0;
+        for (int i = 0; i < antall; i++) {
+            forventet[i] = validator.test(data, 3 + i * 10, 9);
+            if (forventet[i]) forventetGyldige++;
+        }
+
+        for (var kjerne : kjerner()) {
+            var resultat = new boolean[antall];
+            assertEquals(forventetGyldige, kjerne.testFixedWidth(data, 3, 10, antall, resultat), kjerne.getClass().getName());
+            assertArrayEquals(forventet, resultat, kjerne.getClass().getName());
+        }
+    }
+
+    @Test
+    public void testSisteRecordUtenPaddingHeltPaaSluttenAvArrayet() {
+        var data = "123456785135795313999263550".getBytes(StandardCharsets.US_ASCII);
+
+        for (var kjerne : kjerner()) {
+            var resultat = new boolean[3];
+            assertEquals(3, kjerne.testFixedWidth(data, 0, 9, 3, resultat));
+        }
+    }
+
+    @Test
+    public void testForMangeRecords() {
+        var data = "123456785135795313".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> OrganisasjonsnummerBatchValidator.preferred().testFixedWidth(data, 0, 9, 3, new boolean[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> OrganisasjonsnummerBatchValidator.preferred().testFixedWidth(data, 0, 8, 2, new boolean[2]));
+    }
+
+    @Test
+    public void testSkalarkjerneErStandard() {
+        assertSame(OrganisasjonsnummerBatchValidator.scalar(), OrganisasjonsnummerBatchValidator.preferred());
+    }
+}
@@ -0,0 +1,73 @@
+package no.nav;
+
+import no.nav.idvalidator.OrganisasjonsnummerGenerator;
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrganisasjonsnummerGeneratorTest {
+    OrganisasjonsnummerValidator validator = new OrganisasjonsnummerValidator();
+
+    @Test
+    public void testKontrollsiffer() {
+        assertEquals(2, OrganisasjonsnummerGenerator.controlDigit(88964078));
+        assertEquals(4, OrganisasjonsnummerGenerator.controlDigit(97479185));
+        assertEquals(-1, OrganisasjonsnummerGenerator.controlDigit(88964074));
+    }
+
+    @Test
+    public void testGyldigeErAlleGyldigeIOmradet() {
+        int fra = 88_960_000;
+        int til = 88_970_000;
+        var bruteForce = IntStream.range(fra * 10, til * 10)
+                .filter(orgnr -> validator.test(OrganisasjonsnummerGenerator.format(orgnr)))
+                .toArray();
+
+        assertArrayEquals(bruteForce, OrganisasjonsnummerGenerator.valid(fra, til).toArray());
+        assertArrayEquals(bruteForce, OrganisasjonsnummerGenerator.valid(fra, til).parallel().toArray());
+    }
+
+    @Test
+    public void testUgyldige() {
+        assertEquals(10_000, OrganisasjonsnummerGenerator.invalid(88_960_000, 88_970_000)
+                .filter(orgnr -> !validator.test(OrganisasjonsnummerGenerator.format(orgnr)))
+                .count());
+    }
+
+    @Test
+    public void testShardsDekkerAlt() {
+        int forrige = -1;
+        for (int shard = 0; shard < 7; shard++) {
+            var numbers = OrganisasjonsnummerGenerator.shard(shard, 7).limit(3).toArray();
+            assertTrue(numbers[0] > forrige);
+            forrige = numbers[numbers.length - 1];
+        }
+        long antall = OrganisasjonsnummerGenerator.shard(0, 1000).count() + OrganisasjonsnummerGenerator.shard(1, 1000).count();
+
+        assertEquals(OrganisasjonsnummerGenerator.valid(0, 200_000).count(), antall);
+        assertThrows(IllegalArgumentException.class, () -> OrganisasjonsnummerGenerator.shard(7, 7));
+    }
+
+    @Test
+    public void testFormatOgSkriv() throws IOException {
+        var out = new ByteArrayOutputStream();
+
+        long antall = OrganisasjonsnummerGenerator.write(OrganisasjonsnummerGenerator.valid(0, 20_000), out);
+
+        var linjer = out.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(antall, linjer.length);
+        assertEquals("000000000", linjer[0]);
+        for (var linje : linjer) assertTrue(validator.test(linje), linje);
+        assertFalse(validator.test(OrganisasjonsnummerGenerator.format(889640781)));
+    }
+}
@@ -0,0 +1,81 @@
+package no.nav;
+
+import no.nav.idvalidator.OrganisasjonsnummerGenerator;
+import no.nav.idvalidator.OrganisasjonsnummerSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OrganisasjonsnummerSetTest {
+    @TempDir
+    Path mappe;
+
+    @Test
+    public void testGyldigeFinnes() {
+        var set = OrganisasjonsnummerSet.builder()
+                .add("974791854")
+                .add(889640782)
+                .add("974791854")
+                .build();
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains("974791854"));
+        assertTrue(set.contains(new StringBuilder("889640782")));
+        assertTrue(set.contains(974791854));
+        assertFalse(set.contains("923609016"));
+        assertFalse(set.contains("97479185"));
+        assertFalse(set.contains("97479185a"));
+        assertFalse(set.contains((CharSequence) null));
+        assertFalse(set.contains(-974791854));
+        assertArrayEquals(new int[]{889640782, 974791854}, set.stream().toArray());
+    }
+
+    @Test
+    public void testUgyldigeAvvises() {
+        var builder = OrganisasjonsnummerSet.builder();
+
+        assertThrows(IllegalArgumentException.class, () -> builder.add("974791855"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("97479185"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add("9747918a4"));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(974791855));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(1_000_000_000));
+    }
+
+    @Test
+    public void testSkrivOgMap() throws IOException {
+        var set = OrganisasjonsnummerSet.builder()
+                .addAll(OrganisasjonsnummerGenerator.valid(97_000_000, 97_100_000))
+                .build();
+        var fil = mappe.resolve("orgnr.bin");
+
+        set.write(fil);
+        var mapped = OrganisasjonsnummerSet.map(fil);
+
+        assertEquals(set.size(), mapped.size());
+        assertArrayEquals(set.stream().toArray(), mapped.stream().toArray());
+        assertTrue(mapped.contains("970000003"));
+        assertFalse(mapped.contains("974791854"));
+    }
+
+    @Test
+    public void testUgyldigFilAvvises() throws IOException {
+        var fil = mappe.resolve("orgnr.bin");
+        OrganisasjonsnummerSet.builder().add(974791854).add(889640782).build().write(fil);
+        var bytes = Files.readAllBytes(fil);
+        bytes[bytes.length - 1]++;
+        Files.write(fil, bytes);
+
+        assertThrows(IOException.class, () -> OrganisasjonsnummerSet.map(fil));
+        Files.write(fil, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> OrganisasjonsnummerSet.map(fil));
+    }
+}
@@ -1,10 +1,17 @@
 package no.nav;
 
 import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import no.nav.idvalidator.ValidationReason;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -110,4 +117,101 @@ public class OrganisasjonsnummerValidatorTest {
         assertFalse(validator.test("bdfhjfdb2"));
         assertFalse(validator.test("BDFHJFDB2"));
     }
+
+    @Test
+    public void testCharSequenceOgSlices() {
+        for (String orgNr : gyldigeOrgNummer()) {
+            var medPadding = "xx" + orgNr + "yy";
+            assertTrue(validator.test(new StringBuilder(orgNr)), orgNr);
+            assertTrue(validator.test(medPadding.toCharArray(), 2, 9), orgNr);
+            assertTrue(validator.test(medPadding.getBytes(StandardCharsets.US_ASCII), 2, 9), orgNr);
+            assertTrue(validator.test(ByteBuffer.wrap(medPadding.getBytes(StandardCharsets.US_ASCII)), 2, 9), orgNr);
+        }
+        for (String orgNr : ugyldigeOrgNummer()) {
+            assertFalse(validator.test(new StringBuilder(orgNr)), orgNr);
+            assertFalse(validator.test(orgNr.toCharArray(), 0, 9), orgNr);
+            assertFalse(validator.test(orgNr.getBytes(StandardCharsets.US_ASCII), 0, 9), orgNr);
+        }
+        assertFalse(validator.test((CharSequence) null));
+        assertFalse(validator.test("1234567850".toCharArray(), 0, 10));
+    }
+
+    @Test
+    public void testAlleIBufferMedLinjeskift() {
+        var buffer = ByteBuffer.wrap("123456785\r\n135795310\n\n88964A782\n974791854\n".getBytes(StandardCharsets.US_ASCII));
+        var resultat = new BitSet();
+        resultat.set(10);
+
+        assertEquals(5, validator.testAll(buffer, (byte) '\n', resultat));
+        assertEquals(BitSet.valueOf(new long[]{0b10001}), resultat.get(0, 5));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void testAlleIBufferMedSemikolonUtenAvsluttendeSkilletegn() {
+        var buffer = ByteBuffer.allocateDirect(64).put("999263550;8896407820;995690217".getBytes(StandardCharsets.US_ASCII)).flip();
+        var resultat = new boolean[3];
+
+        assertEquals(3, validator.testAll(buffer, (byte) ';', resultat));
+        assertArrayEquals(new boolean[]{true, false, true}, resultat);
+    }
+
+    @Test
+    public void testValideringsarsakStemmerMedTest() {
+        for (String orgNr : gyldigeOrgNummer()) {
+            int resultat = validator.validate(orgNr);
+            assertTrue(ValidationReason.isValid(resultat), orgNr);
+            assertEquals(ValidationReason.VALID, ValidationReason.of(resultat), orgNr);
+            assertEquals(orgNr.charAt(8) - '0', ValidationReason.expectedControlDigit(resultat), orgNr);
+        }
+        for (String orgNr : ugyldigeOrgNummer()) {
+            assertFalse(ValidationReason.isValid(validator.validate(orgNr)), orgNr);
+        }
+    }
+
+    @Test
+    public void testValideringsarsaker() {
+        assertEquals(ValidationReason.NULL, ValidationReason.of(validator.validate(null)));
+        assertEquals(ValidationReason.WRONG_LENGTH, ValidationReason.of(validator.validate("8896407820")));
+        assertEquals(ValidationReason.WRONG_LENGTH, ValidationReason.of(validator.validate("")));
+        assertEquals(ValidationReason.NON_DIGIT, ValidationReason.of(validator.validate("88964A782")));
+        assertEquals(-1, ValidationReason.expectedControlDigit(validator.validate("88964A782")));
+        assertEquals(ValidationReason.NO_VALID_CONTROL_DIGIT, ValidationReason.of(validator.validate("889640740")));
+        assertEquals(-1, ValidationReason.expectedControlDigit(validator.validate("889640740")));
+    }
+
+    @Test
+    public void testFeilKontrollsifferGirForventetKontrollsiffer() {
+        int resultat = validator.validate("889640780");
+
+        assertEquals(ValidationReason.WRONG_CONTROL_DIGIT, ValidationReason.of(resultat));
+        assertEquals(2, ValidationReason.expectedControlDigit(resultat));
+    }
+
+    @Test
+    public void testUgyldigTegnSomKontrollsifferGirForventetKontrollsiffer() {
+        int resultat = validator.validate("88964078A");
+
+        assertEquals(ValidationReason.NON_DIGIT, ValidationReason.of(resultat));
+        assertEquals(2, ValidationReason.expectedControlDigit(resultat));
+    }
+
+    @Test
+    public void testInstrumentertValidator() {
+        var kall = new ArrayList<String>();
+        var instrumentert = validator.instrumented((navn, gyldig, nanos) -> {
+            assertTrue(nanos >= 0);
+            kall.add(navn + ":" + gyldig);
+        });
+        var linjer = "889640782\n123456789\n".getBytes(StandardCharsets.US_ASCII);
+
+        assertTrue(instrumentert.test("889640782"));
+        assertFalse(instrumentert.test(new StringBuilder("889640781")));
+        assertTrue(instrumentert.test(linjer, 0, 9));
+        assertEquals(2, instrumentert.testAll(ByteBuffer.wrap(linjer), (byte) '\n', new BitSet()));
+
+        assertEquals(List.of("OrganisasjonsnummerValidator:true", "OrganisasjonsnummerValidator:false",
+                "OrganisasjonsnummerValidator:true", "OrganisasjonsnummerValidator:true",
+                "OrganisasjonsnummerValidator:false"), kall);
+    }
 }
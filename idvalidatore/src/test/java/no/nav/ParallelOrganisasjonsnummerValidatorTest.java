@@ -0,0 +1,95 @@
+package no.nav;
+
+import no.nav.idvalidator.ParallelOrganisasjonsnummerValidator;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ParallelOrganisasjonsnummerValidatorTest {
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    // Small chunks so the lines are spread over many chunks, including a line longer than a chunk
+    private final ParallelOrganisasjonsnummerValidator validator = new ParallelOrganisasjonsnummerValidator(pool, 16);
+
+    @TempDir
+    Path tempDir;
+
+    @AfterAll
+    public static void stopPool() {
+        pool.shutdown();
+    }
+
+    private static String innhold() {
+        var sb = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            sb.append(i % 5 == 0 ? "135795310" : "974791854").append(i % 7 == 0 ? "\r\n" : "\n");
+        }
+        sb.append("dette er en linje som er lengre enn en hel chunk\n");
+        sb.append("\n");
+        sb.append("123456785");
+        return sb.toString();
+    }
+
+    private static long[] forventedeUgyldigeLinjer() {
+        var linjer = new long[102];
+        for (int i = 0; i < 100; i++) linjer[i] = i * 5L + 1;
+        linjer[100] = 501;
+        linjer[101] = 502;
+        return linjer;
+    }
+
+    private Path fil() throws IOException {
+        return Files.writeString(tempDir.resolve("orgnr.txt"), innhold());
+    }
+
+    private ByteArrayInputStream strom() {
+        return new ByteArrayInputStream(innhold().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testTellingFraFilOgStrom() throws IOException {
+        assertEquals(new ParallelOrganisasjonsnummerValidator.ValidationCounts(401, 102), validator.count(fil()));
+        assertEquals(new ParallelOrganisasjonsnummerValidator.ValidationCounts(401, 102), validator.count(strom()));
+    }
+
+    @Test
+    public void testUgyldigeLinjenummerFraFilOgStrom() throws IOException {
+        assertArrayEquals(forventedeUgyldigeLinjer(), validator.invalidLines(fil()));
+        assertArrayEquals(forventedeUgyldigeLinjer(), validator.invalidLines(strom()));
+    }
+
+    @Test
+    public void testFiltrertUtdataBeholderRekkefolge() throws IOException {
+        var fraFil = new ByteArrayOutputStream();
+        var fraStrom = new ByteArrayOutputStream();
+        validator.filter(fil(), fraFil);
+        validator.filter(strom(), fraStrom);
+
+        var forventet = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            if (i % 5 != 0) forventet.append("974791854").append(i % 7 == 0 ? "\r\n" : "\n");
+        }
+        forventet.append("123456785\n");
+        assertEquals(forventet.toString(), fraFil.toString(StandardCharsets.US_ASCII));
+        assertEquals(forventet.toString(), fraStrom.toString(StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    public void testTomFil() throws IOException {
+        var fil = Files.createFile(tempDir.resolve("tom.txt"));
+
+        assertEquals(0, validator.count(fil).total());
+        assertEquals(0, validator.count(new ByteArrayInputStream(new byte[0])).total());
+    }
+}
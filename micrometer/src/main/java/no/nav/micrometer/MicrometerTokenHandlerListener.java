@@ -0,0 +1,43 @@
+package no.nav.micrometer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import no.nav.tokentest.TokenHandlerListener;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every {@code TokenHandler} operation in the timer {@value #METER}, tagged with {@code operation} and
+ * {@code outcome} ({@code success} or {@code failure}), with a percentile histogram. The timers are registered up front,
+ * so recording is one map lookup.
+ */
+public class MicrometerTokenHandlerListener implements TokenHandlerListener {
+    public static final String METER = "tokentest.operation";
+
+    private final Map<Operation, Timer> successes = new EnumMap<>(Operation.class);
+    private final Map<Operation, Timer> failures = new EnumMap<>(Operation.class);
+
+    public MicrometerTokenHandlerListener(MeterRegistry registry) {
+        for (var operation : Operation.values()) {
+            successes.put(operation, timer(registry, operation, "success"));
+            failures.put(operation, timer(registry, operation, "failure"));
+        }
+    }
+
+    private static Timer timer(MeterRegistry registry, Operation operation, String outcome) {
+        return Timer.builder(METER)
+                .description("Time spent in TokenHandler operations")
+                .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    @Override
+    public void onOperation(Operation operation, long durationNanos, boolean success) {
+        (success ? successes : failures).get(operation).record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,42 @@
+package no.nav.micrometer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import no.nav.idvalidator.ValidationListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records every call to an instrumented validator in the timer {@value #METER}, tagged with {@code validator} and
+ * {@code valid}, with a percentile histogram. Use with {@code IdnummerValidator.instrumented(listener)}.
+ */
+public class MicrometerValidationListener implements ValidationListener {
+    public static final String METER = "idvalidator.validation";
+
+    private final MeterRegistry registry;
+    // One entry per validator class and outcome, so the map stays tiny and the lookup never allocates
+    private final ConcurrentHashMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    public MicrometerValidationListener(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onValidation(String validator, boolean valid, long durationNanos) {
+        timers.computeIfAbsent(validator, this::register)[valid ? 1 : 0].record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer[] register(String validator) {
+        return new Timer[]{timer(validator, false), timer(validator, true)};
+    }
+
+    private Timer timer(String validator, boolean valid) {
+        return Timer.builder(METER)
+                .description("Time spent validating identity numbers")
+                .tag("validator", validator)
+                .tag("valid", Boolean.toString(valid))
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,58 @@
+package no.nav.micrometer;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import no.nav.idvalidator.OrganisasjonsnummerValidator;
+import no.nav.tokentest.TokenClaims;
+import no.nav.tokentest.TokenHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MicrometerListenersTest {
+
+    @Test
+    public void testTokenHandlerOperasjoner() {
+        var registry = new SimpleMeterRegistry();
+        var tokenHandler = TokenHandler.builder().withAlgorithm(SignatureAlgorithm.ES256).withStaticKeyPair()
+                .withListener(new MicrometerTokenHandlerListener(registry))
+                .build();
+
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+        tokenHandler.validateAndParseToken(signedToken);
+        tokenHandler.validateAndParseToken(signedToken);
+
+        assertEquals(1, registry.get(MicrometerTokenHandlerListener.METER).tags("operation", "sign", "outcome", "success").timer().count());
+        assertEquals(2, registry.get(MicrometerTokenHandlerListener.METER).tags("operation", "validate", "outcome", "success").timer().count());
+        assertEquals(0, registry.get(MicrometerTokenHandlerListener.METER).tags("operation", "validate", "outcome", "failure").timer().count());
+    }
+
+    @Test
+    public void testTaggerUavhengigAvLocale() {
+        var locale = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            var registry = new SimpleMeterRegistry();
+            new MicrometerTokenHandlerListener(registry);
+
+            assertEquals(0, registry.get(MicrometerTokenHandlerListener.METER).tags("operation", "validate", "outcome", "success").timer().count());
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void testValidering() {
+        var registry = new SimpleMeterRegistry();
+        var validator = new OrganisasjonsnummerValidator().instrumented(new MicrometerValidationListener(registry));
+
+        validator.test("889640782");
+        validator.test("889640781");
+        validator.test("889640781");
+
+        assertEquals(1, registry.get(MicrometerValidationListener.METER).tags("validator", "OrganisasjonsnummerValidator", "valid", "true").timer().count());
+        assertEquals(2, registry.get(MicrometerValidationListener.METER).tags("validator", "OrganisasjonsnummerValidator", "valid", "false").timer().count());
+    }
+}
@@ -0,0 +1,275 @@
+package no.nav.tokentest;
+
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.RequiredTypeException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A read-only view over the decoded JSON of a token payload, from {@link TokenHandler#validateToClaimsView(String)}.
+ * Nothing is parsed up front: each accessor scans the top-level members for its claim and decodes only that value, so
+ * no other claim is ever built. Numbers come back as primitive {@code long}s and strings are only built when asked for.
+ * A claim that appears twice has its last value, and the date accessors read what jjwt reads, so a view agrees with
+ * the {@code Claims} that {@link TokenHandler#validateAndParseToken(String)} returns for the same token.
+ * <p>
+ * Every call scans again, so read a claim into a local if it is needed more than once. A scan checks the top level of
+ * the JSON but only the value it reads, so a syntax error inside a claim nobody reads goes unnoticed; one that is
+ * found throws {@link MalformedJwtException}. Immutable and safe to share between threads.
+ */
+public final class ClaimsView {
+    /**
+     * Returned by the {@code long} accessors when the claim is missing.
+     */
+    public static final long ABSENT = Long.MIN_VALUE;
+
+    private final byte[] json;
+    private final int length;
+
+    ClaimsView(byte[] json, int length) {
+        this.json = json;
+        this.length = length;
+    }
+
+    public boolean has(String name) {
+        return valueOf(name) >= 0;
+    }
+
+    /**
+     * @return the claim, or {@code null} if it is missing or JSON {@code null}
+     * @throws RequiredTypeException if the claim is not a string
+     */
+    public String getString(String name) {
+        int i = valueOf(name);
+        if (i < 0 || json[i] == 'n') return null;
+        if (json[i] != '"') throw new RequiredTypeException("The " + name + " claim is not a string");
+        return decodeString(i);
+    }
+
+    /**
+     * A number with a fraction or an exponent is truncated, as jjwt does for dates.
+     *
+     * @return the claim, or {@code defaultValue} if it is missing or JSON {@code null}
+     * @throws RequiredTypeException if the claim is not a number
+     */
+    public long getLong(String name, long defaultValue) {
+        int i = valueOf(name);
+        if (i < 0 || json[i] == 'n') return defaultValue;
+        return number(name, i);
+    }
+
+    /**
+     * {@code exp} in seconds since the epoch, or {@link #ABSENT}.
+     *
+     * @throws RequiredTypeException if the claim is not a date
+     */
+    public long getExpiration() {
+        return date("exp");
+    }
+
+    /**
+     * {@code nbf} in seconds since the epoch, or {@link #ABSENT}.
+     *
+     * @throws RequiredTypeException if the claim is not a date
+     */
+    public long getNotBefore() {
+        return date("nbf");
+    }
+
+    /**
+     * {@code iat} in seconds since the epoch, or {@link #ABSENT}.
+     *
+     * @throws RequiredTypeException if the claim is not a date
+     */
+    public long getIssuedAt() {
+        return date("iat");
+    }
+
+    public String getSubject() {
+        return getString("sub");
+    }
+
+    public String getIssuer() {
+        return getString("iss");
+    }
+
+    /**
+     * {@code aud} when it is a single string.
+     */
+    public String getAudience() {
+        return getString("aud");
+    }
+
+    public String getId() {
+        return getString("jti");
+    }
+
+    /**
+     * The whole payload, for logging or for parsing it fully elsewhere.
+     */
+    public String toJson() {
+        return new String(json, 0, length, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    private long number(String name, int start) {
+        int i = start;
+        boolean negative = json[i] == '-';
+        if (negative) i++;
+        long value = 0;
+        int digits = 0;
+        for (; i < length && json[i] >= '0' && json[i] <= '9'; i++, digits++) value = value * 10 + json[i] - '0';
+        if (digits == 0) throw new RequiredTypeException("The " + name + " claim is not a number");
+        if (digits > 18 || i < length && (json[i] == '.' || json[i] == 'e' || json[i] == 'E')) {
+            int end = skipValue(start);
+            return (long) Double.parseDouble(new String(json, start, end - start, StandardCharsets.US_ASCII));
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Like jjwt: a missing or {@code null} date is absent, and a date may also be a string of seconds or an ISO-8601
+     * instant.
+     */
+    private long date(String name) {
+        int i = valueOf(name);
+        if (i < 0 || json[i] == 'n') return ABSENT;
+        if (json[i] != '"') return number(name, i);
+        var value = decodeString(i);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return Instant.parse(value).getEpochSecond();
+            } catch (DateTimeParseException notIso) {
+                throw new RequiredTypeException("The " + name + " claim is not a date");
+            }
+        }
+    }
+
+    /**
+     * Scans all top-level members, since a repeated name counts with its last value, as in Gson.
+     *
+     * @return the index where the value of the top-level member {@code name} starts, or -1 if there is none
+     */
+    private int valueOf(String name) {
+        int i = skipWhitespace(0);
+        expect(i, '{');
+        i = skipWhitespace(i + 1);
+        if (at(i) == '}') return -1;
+        int found = -1;
+        while (true) {
+            expect(i, '"');
+            int keyEnd = stringEnd(i);
+            boolean match = keyEquals(i, keyEnd, name);
+            i = skipWhitespace(keyEnd + 1);
+            expect(i, ':');
+            i = skipWhitespace(i + 1);
+            if (match) found = i;
+            i = skipWhitespace(skipValue(i));
+            if (at(i) == '}') return found;
+            expect(i, ',');
+            i = skipWhitespace(i + 1);
+        }
+    }
+
+    private boolean keyEquals(int quote, int keyEnd, String name) {
+        int keyLength = keyEnd - quote - 1;
+        for (int j = 0; j < keyLength; j++) {
+            byte b = json[quote + 1 + j];
+            // Escaped or non-ASCII keys are compared decoded
+            if (b == '\\' || b < 0) return decodeString(quote).equals(name);
+            if (j >= name.length() || name.charAt(j) != b) return false;
+        }
+        return keyLength == name.length();
+    }
+
+    /**
+     * @return the index of the closing quote of the string that opens at {@code quote}
+     */
+    private int stringEnd(int quote) {
+        for (int i = quote + 1; i < length; i++) {
+            if (json[i] == '\\') i++;
+            else if (json[i] == '"') return i;
+        }
+        throw malformed(length);
+    }
+
+    /**
+     * @return the index just past the value that starts at {@code start}
+     */
+    private int skipValue(int start) {
+        byte first = at(start);
+        if (first == '"') return stringEnd(start) + 1;
+        if (first == '{' || first == '[') {
+            int depth = 0;
+            for (int i = start; i < length; i++) {
+                byte b = json[i];
+                if (b == '"') i = stringEnd(i);
+                else if (b == '{' || b == '[') depth++;
+                else if ((b == '}' || b == ']') && --depth == 0) return i + 1;
+            }
+            throw malformed(length);
+        }
+        int i = start;
+        while (i < length && json[i] != ',' && json[i] != '}' && json[i] != ']' && json[i] > ' ') i++;
+        if (i == start) throw malformed(start);
+        return i;
+    }
+
+    private String decodeString(int quote) {
+        int end = stringEnd(quote);
+        int escape = quote + 1;
+        while (escape < end && json[escape] != '\\') escape++;
+        if (escape == end) return new String(json, quote + 1, end - quote - 1, StandardCharsets.UTF_8);
+        var decoded = new StringBuilder(end - quote);
+        int run = quote + 1;
+        for (int i = escape; i < end; i++) {
+            if (json[i] != '\\') continue;
+            decoded.append(new String(json, run, i - run, StandardCharsets.UTF_8));
+            byte escaped = json[++i];
+            switch (escaped) {
+                case 'b' -> decoded.append('\b');
+                case 'f' -> decoded.append('\f');
+                case 'n' -> decoded.append('\n');
+                case 'r' -> decoded.append('\r');
+                case 't' -> decoded.append('\t');
+                case 'u' -> {
+                    if (i + 4 >= end) throw malformed(i);
+                    try {
+                        decoded.append((char) Integer.parseInt(new String(json, i + 1, 4, StandardCharsets.US_ASCII), 16));
+                    } catch (NumberFormatException e) {
+                        throw malformed(i);
+                    }
+                    i += 4;
+                }
+                default -> decoded.append((char) escaped);
+            }
+            run = i + 1;
+        }
+        return decoded.append(new String(json, run, end - run, StandardCharsets.UTF_8)).toString();
+    }
+
+    private int skipWhitespace(int i) {
+        while (i < length && (json[i] == ' ' || json[i] == '\t' || json[i] == '\n' || json[i] == '\r')) i++;
+        return i;
+    }
+
+    private byte at(int i) {
+        if (i >= length) throw malformed(i);
+        return json[i];
+    }
+
+    private void expect(int i, char expected) {
+        if (at(i) != expected) throw malformed(i);
+    }
+
+    private MalformedJwtException malformed(int i) {
+        return new MalformedJwtException("Malformed JSON in token at byte " + i);
+    }
+}
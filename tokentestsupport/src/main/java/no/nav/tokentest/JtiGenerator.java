@@ -0,0 +1,34 @@
+package no.nav.tokentest;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Unique {@code jti} values without contention, for minting tokens at full speed. A value is a random prefix drawn once
+ * per JVM, a lane number handed out once per thread, and a counter that only that thread touches:
+ * {@code <node>-<lane>-<counter>}, in base 36. Values are unique within a JVM and, with 64 random bits in the prefix,
+ * in practice across JVMs too. Only the prefix uses {@link SecureRandom}, so minting never waits on its lock.
+ */
+public final class JtiGenerator {
+    private static final String NODE = Long.toUnsignedString(new SecureRandom().nextLong(), 36);
+    private static final AtomicLong LANES = new AtomicLong();
+    // Lane numbers, unlike thread ids, are never reused when a thread dies
+    private static final ThreadLocal<Lane> LANE = ThreadLocal.withInitial(() -> new Lane(LANES.getAndIncrement()));
+
+    private JtiGenerator() {
+    }
+
+    public static String next() {
+        var lane = LANE.get();
+        return lane.prefix + Long.toString(lane.counter++, 36);
+    }
+
+    private static final class Lane {
+        private final String prefix;
+        private long counter;
+
+        private Lane(long lane) {
+            this.prefix = NODE + "-" + Long.toString(lane, 36) + "-";
+        }
+    }
+}
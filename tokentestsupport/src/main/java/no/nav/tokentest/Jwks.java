@@ -20,6 +20,9 @@ class Jwks {
         private String kid;
         private String alg;
         private String n;
+        private String crv;
+        private String x;
+        private String y;
 
         public String getKty() {
             return kty;
@@ -68,5 +71,29 @@ class Jwks {
         public void setN(String n) {
             this.n = n;
         }
+
+        public String getCrv() {
+            return crv;
+        }
+
+        public void setCrv(String crv) {
+            this.crv = crv;
+        }
+
+        public String getX() {
+            return x;
+        }
+
+        public void setX(String x) {
+            this.x = x;
+        }
+
+        public String getY() {
+            return y;
+        }
+
+        public void setY(String y) {
+            this.y = y;
+        }
     }
 }
@@ -0,0 +1,226 @@
+package no.nav.tokentest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out RSA key pairs generated ahead of time on background threads, so creating a {@link TokenHandler} does not
+ * have to wait for key generation. Every pair is handed out at most once per JVM.
+ * <p>
+ * With a cache file the pairs handed out in one run are saved by {@link #persist()} and handed out first in the next
+ * run, so a test suite only pays for key generation once. The default pool uses the file named by the system property
+ * {@value #CACHE_FILE_PROPERTY}, if set, and persists it at shutdown; other pools must call {@link #persist()}
+ * themselves. A pool claims the pairs it loads by emptying the file under a lock, so JVMs that run at the same time
+ * never share a pair. The file holds unencrypted private keys and is meant for test keys only.
+ */
+public class KeyPairPool {
+    public static final String CACHE_FILE_PROPERTY = "no.nav.tokentest.keyPairCache";
+    private static final String ALGORITHM = "RSA";
+    private static final int DEFAULT_SIZE = 8;
+    private static final int MAX_CACHED = 512;
+    private static final long IDLE_SECONDS = 10;
+    private static final ReentrantLock CACHE_LOCK = new ReentrantLock();
+
+    private final int size;
+    private final Path cacheFile;
+    private final LinkedBlockingQueue<KeyPair> ready = new LinkedBlockingQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final Set<KeyPair> handedOut = new LinkedHashSet<>();
+    private final ThreadPoolExecutor generators;
+
+    public KeyPairPool(int size) {
+        this(size, null);
+    }
+
+    /**
+     * @param cacheFile file to claim pairs from now and save them to with {@link #persist()}, or {@code null} for no cache
+     */
+    public KeyPairPool(int size, Path cacheFile) {
+        if (size <= 0) throw new IllegalArgumentException("size must be positive, was " + size);
+        this.size = size;
+        this.cacheFile = cacheFile;
+        int threads = Math.min(2, Runtime.getRuntime().availableProcessors());
+        this.generators = new ThreadPoolExecutor(threads, threads, IDLE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), KeyPairPool::generatorThread);
+        // A full pool leaves its threads idle; let them end so pools that are dropped do not keep them alive
+        generators.allowCoreThreadTimeOut(true);
+        if (cacheFile != null) ready.addAll(claim(cacheFile));
+        refill();
+    }
+
+    public static KeyPairPool getDefault() {
+        return DefaultHolder.POOL;
+    }
+
+    /**
+     * Returns a key pair that has not been handed out before in this JVM. If the background threads have not caught
+     * up, the pair is generated on the calling thread instead of waiting.
+     */
+    public KeyPair take() {
+        var keyPair = ready.poll();
+        if (keyPair == null) keyPair = generate();
+        if (cacheFile != null) {
+            synchronized (handedOut) {
+                if (handedOut.size() < MAX_CACHED) handedOut.add(keyPair);
+            }
+        }
+        refill();
+        return keyPair;
+    }
+
+    /**
+     * Writes the pairs handed out so far, followed by the ones still waiting, to the cache file, after any pairs other
+     * JVMs have saved there since this pool claimed it. Runs automatically at shutdown for the default pool.
+     */
+    public void persist() throws IOException {
+        if (cacheFile == null) return;
+        List<KeyPair> keyPairs;
+        synchronized (handedOut) {
+            keyPairs = new ArrayList<>(handedOut);
+        }
+        keyPairs.addAll(ready);
+        var encoder = Base64.getEncoder();
+        var lines = new LinkedHashSet<String>();
+        for (var keyPair : keyPairs) {
+            lines.add(encoder.encodeToString(keyPair.getPrivate().getEncoded()) + " "
+                    + encoder.encodeToString(keyPair.getPublic().getEncoded()));
+        }
+        var parent = cacheFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        try (var lock = lock(cacheFile)) {
+            if (Files.exists(cacheFile)) lines.addAll(Files.readAllLines(cacheFile));
+            var temp = Files.createTempFile(parent, cacheFile.getFileName().toString(), ".tmp");
+            Files.write(temp, lines.stream().limit(MAX_CACHED).toList());
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    private void refill() {
+        while (ready.size() + pending.get() < size) {
+            pending.incrementAndGet();
+            generators.execute(() -> {
+                try {
+                    ready.add(generate());
+                } finally {
+                    pending.decrementAndGet();
+                }
+            });
+        }
+    }
+
+    private static Thread generatorThread(Runnable runnable) {
+        var thread = new Thread(runnable, "tokentest-keypairpool");
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static KeyPair generate() {
+        try {
+            return KeyPairGenerator.getInstance(ALGORITHM).generateKeyPair();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Loads the pairs in the cache file and empties it, holding the lock, so no other pool or JVM gets the same pairs.
+     */
+    private static List<KeyPair> claim(Path cacheFile) {
+        if (!Files.exists(cacheFile)) return List.of();
+        List<String> lines;
+        try (var lock = lock(cacheFile)) {
+            if (!Files.exists(cacheFile)) return List.of();
+            lines = Files.readAllLines(cacheFile);
+            Files.delete(cacheFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            var keyFactory = KeyFactory.getInstance(ALGORITHM);
+            var decoder = Base64.getDecoder();
+            var keyPairs = new ArrayList<KeyPair>();
+            for (var line : lines) {
+                var parts = line.split(" ");
+                if (parts.length != 2) continue;
+                var privateKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decoder.decode(parts[0])));
+                var publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decoder.decode(parts[1])));
+                keyPairs.add(new KeyPair(publicKey, privateKey));
+            }
+            return keyPairs;
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            // A damaged cache only costs the time to generate new keys
+            return List.of();
+        }
+    }
+
+    /**
+     * Locks a file next to the cache file, since the cache file itself is replaced on every write. A file lock is held
+     * by the whole JVM, so pools in the same JVM also take turns on {@link #CACHE_LOCK}.
+     */
+    private static CacheLock lock(Path cacheFile) throws IOException {
+        var lockFile = cacheFile.resolveSibling(cacheFile.getFileName() + ".lock");
+        Files.createDirectories(lockFile.toAbsolutePath().getParent());
+        CACHE_LOCK.lock();
+        FileChannel channel = null;
+        try {
+            channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            channel.lock();
+            return new CacheLock(channel);
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) channel.close();
+            CACHE_LOCK.unlock();
+            throw e;
+        }
+    }
+
+    private record CacheLock(FileChannel channel) implements AutoCloseable {
+        @Override
+        public void close() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                CACHE_LOCK.unlock();
+            }
+        }
+    }
+
+    private static class DefaultHolder {
+        private static final KeyPairPool POOL = create();
+
+        private static KeyPairPool create() {
+            var cacheFile = System.getProperty(CACHE_FILE_PROPERTY);
+            if (cacheFile == null) return new KeyPairPool(DEFAULT_SIZE);
+            var pool = new KeyPairPool(DEFAULT_SIZE, Path.of(cacheFile));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    pool.persist();
+                } catch (IOException | RuntimeException e) {
+                    // The next run generates its keys instead
+                }
+            }, "tokentest-keypairpool-persist"));
+            return pool;
+        }
+    }
+}
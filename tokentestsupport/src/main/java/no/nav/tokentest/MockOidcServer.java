@@ -0,0 +1,218 @@
+package no.nav.tokentest;
+
+import com.google.gson.Gson;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local OpenID Connect provider for tests, backed by a {@link TokenHandler}. It listens on the loopback interface only
+ * and serves:
+ * <ul>
+ *     <li>{@code GET /.well-known/openid-configuration}, the discovery document</li>
+ *     <li>{@code GET /jwks}, every key in the handler's keyring, as {@link TokenHandler#getJWKS()}</li>
+ *     <li>{@code POST /token}, a signed access token. Every form parameter becomes a claim, on top of the default
+ *     claims and {@code iss}, except {@code grant_type} and the parameters that carry credentials or grants, such as
+ *     {@code client_secret}, {@code client_assertion} and {@code password}. Times follow the handler's clock.</li>
+ * </ul>
+ * The discovery and JWKS documents are served from cached bytes, and every response has a {@code Content-Length}, so
+ * clients can keep their connections alive. Requests run on virtual threads when the JVM has them. For many requests
+ * per connection, start the JVM with {@code -Dsun.net.httpserver.nodelay=true}: the JDK server writes headers and body
+ * separately, so with Nagle's algorithm on every kept-alive request waits around 40 ms for a delayed ACK. The property
+ * applies to every {@code HttpServer} in the JVM, so it is left to the caller.
+ */
+public class MockOidcServer implements AutoCloseable {
+    private static final Gson GSON = new Gson();
+    private static final String JSON = "application/json";
+    // Never copied into a token: the grant type, and secrets a client sends to prove who it is or what it may get
+    private static final Set<String> NOT_CLAIMS = Set.of("grant_type", "client_secret", "client_assertion",
+            "client_assertion_type", "password", "code", "code_verifier", "refresh_token", "assertion", "subject_token",
+            "subject_token_type", "actor_token", "actor_token_type");
+
+    private final TokenHandler tokenHandler;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final URI issuer;
+    private final Duration tokenLifetime;
+    private final byte[] discovery;
+
+    private MockOidcServer(MockOidcServerBuilder builder) throws IOException {
+        this.tokenHandler = builder.tokenHandler;
+        this.tokenLifetime = builder.tokenLifetime;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), builder.port), builder.backlog);
+        var virtualThreads = VirtualThreads.newVirtualThreadPerTaskExecutor();
+        this.executor = virtualThreads != null ? virtualThreads : Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        var address = server.getAddress();
+        this.issuer = URI.create("http://" + address.getHostString() + ":" + address.getPort());
+        this.discovery = discoveryDocument().getBytes(StandardCharsets.UTF_8);
+        server.createContext("/.well-known/openid-configuration", exchange -> handle(exchange, "GET", () -> discovery));
+        server.createContext("/jwks", exchange -> handle(exchange, "GET", tokenHandler::getJWKSUtf8));
+        server.createContext("/token", exchange -> handle(exchange, "POST", () -> token(exchange)));
+        server.start();
+    }
+
+    public static MockOidcServerBuilder builder(TokenHandler tokenHandler) {
+        return new MockOidcServerBuilder(tokenHandler);
+    }
+
+    /**
+     * Starts a server on a free port.
+     */
+    public static MockOidcServer start(TokenHandler tokenHandler) throws IOException {
+        return builder(tokenHandler).build();
+    }
+
+    /**
+     * The base URL, which is also the {@code iss} of every token from {@code /token}.
+     */
+    public URI getIssuer() {
+        return issuer;
+    }
+
+    public URI getJwksUri() {
+        return issuer.resolve("/jwks");
+    }
+
+    public URI getTokenEndpoint() {
+        return issuer.resolve("/token");
+    }
+
+    public URI getDiscoveryUri() {
+        return issuer.resolve("/.well-known/openid-configuration");
+    }
+
+    public TokenHandler getTokenHandler() {
+        return tokenHandler;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private String discoveryDocument() {
+        var document = new LinkedHashMap<String, Object>();
+        document.put("issuer", issuer.toString());
+        document.put("jwks_uri", getJwksUri().toString());
+        document.put("token_endpoint", getTokenEndpoint().toString());
+        document.put("response_types_supported", List.of("token"));
+        document.put("subject_types_supported", List.of("public"));
+        document.put("id_token_signing_alg_values_supported", List.of(tokenHandler.getAlgorithm().getValue()));
+        return GSON.toJson(document);
+    }
+
+    private byte[] token(HttpExchange exchange) {
+        Map<String, String> form;
+        try (var body = exchange.getRequestBody()) {
+            form = parseForm(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        form.keySet().removeAll(NOT_CLAIMS);
+        var clock = tokenHandler.getClock();
+        var claims = TokenClaims.builder().withDefaultClaims(clock)
+                .withClaim("iss", issuer.toString())
+                .withClaim("exp", clock.instant().plus(tokenLifetime).getEpochSecond())
+                .withClaims(new LinkedHashMap<>(form))
+                .build();
+        var response = new LinkedHashMap<String, Object>();
+        response.put("access_token", tokenHandler.getSignedToken(claims));
+        response.put("token_type", "Bearer");
+        response.put("expires_in", tokenLifetime.toSeconds());
+        return GSON.toJson(response).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, String> parseForm(String body) {
+        var form = new LinkedHashMap<String, String>();
+        for (var pair : body.split("&")) {
+            if (pair.isEmpty()) continue;
+            int separator = pair.indexOf('=');
+            var name = separator < 0 ? pair : pair.substring(0, separator);
+            var value = separator < 0 ? "" : pair.substring(separator + 1);
+            form.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return form;
+    }
+
+    private static void handle(HttpExchange exchange, String method, ResponseBody responseBody) throws IOException {
+        try (exchange) {
+            if (!method.equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", method);
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            // Only exact paths; HttpServer matches contexts by prefix
+            if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] body;
+            try {
+                body = responseBody.get();
+            } catch (RuntimeException e) {
+                // Answered before try-with-resources closes the exchange, or the client only sees a reset
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            exchange.getResponseHeaders().set("Content-Type", JSON);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+        }
+    }
+
+    private interface ResponseBody {
+        byte[] get();
+    }
+
+    public static class MockOidcServerBuilder {
+        private final TokenHandler tokenHandler;
+        private int port;
+        private int backlog = 1024;
+        private Duration tokenLifetime = Duration.ofMinutes(5);
+
+        private MockOidcServerBuilder(TokenHandler tokenHandler) {
+            this.tokenHandler = tokenHandler;
+        }
+
+        /**
+         * The port to listen on, or 0, the default, for any free port.
+         */
+        public MockOidcServerBuilder withPort(int port) {
+            this.port = port;
+            return this;
+        }
+
+        /**
+         * How many connections may wait to be accepted, 1024 by default.
+         */
+        public MockOidcServerBuilder withBacklog(int backlog) {
+            this.backlog = backlog;
+            return this;
+        }
+
+        public MockOidcServerBuilder withTokenLifetime(Duration tokenLifetime) {
+            this.tokenLifetime = tokenLifetime;
+            return this;
+        }
+
+        public MockOidcServer build() throws IOException {
+            return new MockOidcServer(this);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package no.nav.tokentest;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A clock that stands still until moved, for compressing hours of token expiry into a fast, deterministic test. Give
+ * the same clock to {@link TokenHandler.TokenHandlerBuilder#withClock(Clock)},
+ * {@link TokenClaims.TokenClaimsBuilder#withDefaultClaims(Clock)} and
+ * {@link TokenClaimsTemplate.TokenClaimsTemplateBuilder#withClock(Clock)}. Safe to move from one thread while others read
+ * it.
+ */
+public class MutableClock extends Clock {
+    private final AtomicReference<Instant> instant;
+    private final ZoneId zone;
+
+    public MutableClock(Instant instant) {
+        this(new AtomicReference<>(instant), ZoneOffset.UTC);
+    }
+
+    private MutableClock(AtomicReference<Instant> instant, ZoneId zone) {
+        this.instant = instant;
+        this.zone = zone;
+    }
+
+    /**
+     * A clock that starts at the current time.
+     */
+    public static MutableClock now() {
+        return new MutableClock(Instant.now());
+    }
+
+    public void set(Instant instant) {
+        this.instant.set(instant);
+    }
+
+    public void advance(Duration duration) {
+        instant.updateAndGet(current -> current.plus(duration));
+    }
+
+    @Override
+    public Instant instant() {
+        return instant.get();
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * A view in another zone that moves together with this clock.
+     */
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return new MutableClock(instant, zone);
+    }
+}
@@ -0,0 +1,62 @@
+package no.nav.tokentest;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.KeyPair;
+import java.security.KeyStore;
+import java.security.KeyStoreException;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivateKey;
+import java.security.UnrecoverableKeyException;
+import java.security.cert.CertificateException;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The key pairs in {@code /teststatkeystore.jks}, read and decrypted once per JVM, on first use, and shared by every
+ * {@code TokenHandler(true)}. {@link KeyPair} and the keys in it are immutable, so sharing is thread-safe.
+ */
+final class StaticKeyPair {
+    private static final String KEYSTORE = "/teststatkeystore.jks";
+    private static final Map<SignatureAlgorithm, String> ALIASES = Map.of(
+            SignatureAlgorithm.RS256, "teststatkey",
+            SignatureAlgorithm.ES256, "teststatkey-es256",
+            SignatureAlgorithm.ES384, "teststatkey-es384",
+            SignatureAlgorithm.ES512, "teststatkey-es512");
+    private static final char[] PASSWORD = "test1234".toCharArray();
+
+    private StaticKeyPair() {
+    }
+
+    static KeyPair get() {
+        return get(SignatureAlgorithm.RS256);
+    }
+
+    static KeyPair get(SignatureAlgorithm algorithm) {
+        var keyPair = Holder.KEY_PAIRS.get(algorithm);
+        if (keyPair == null) throw new IllegalArgumentException("No static key pair for " + algorithm);
+        return keyPair;
+    }
+
+    static Map<SignatureAlgorithm, KeyPair> load() {
+        try (InputStream is = TokenHandler.class.getResourceAsStream(KEYSTORE)) {
+            var keystore = KeyStore.getInstance(KeyStore.getDefaultType());
+            keystore.load(is, PASSWORD);
+            var keyPairs = new EnumMap<SignatureAlgorithm, KeyPair>(SignatureAlgorithm.class);
+            for (var alias : ALIASES.entrySet()) {
+                var privateKey = (PrivateKey) keystore.getKey(alias.getValue(), PASSWORD);
+                var publicKey = keystore.getCertificate(alias.getValue()).getPublicKey();
+                keyPairs.put(alias.getKey(), new KeyPair(publicKey, privateKey));
+            }
+            return keyPairs;
+        } catch (IOException | CertificateException | NoSuchAlgorithmException | UnrecoverableKeyException | KeyStoreException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Holder {
+        private static final Map<SignatureAlgorithm, KeyPair> KEY_PAIRS = load();
+    }
+}
@@ -0,0 +1,183 @@
+package no.nav.tokentest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Mints many signed tokens in parallel from one claims template, for load tests. Each token starts from a copy of the
+ * template claims, which the customizer can change based on the token's index, for instance to give every token its own
+ * {@code sub} or {@code jti}. Tokens are signed in chunks on the executor, by default the common fork-join pool.
+ */
+public class TokenBatch {
+    private static final int CHUNK_SIZE = 256;
+
+    private final TokenHandler tokenHandler;
+    private final TokenHeaders headers;
+    private final TokenClaims template;
+    private final ObjIntConsumer<TokenClaims.TokenClaimsBuilder> customizer;
+    private final Executor executor;
+    private final boolean virtualThreads;
+
+    private TokenBatch(TokenBatchBuilder builder) {
+        this.tokenHandler = builder.tokenHandler;
+        this.headers = builder.headers;
+        this.template = builder.template;
+        this.customizer = builder.customizer;
+        this.executor = builder.executor;
+        this.virtualThreads = builder.virtualThreads;
+    }
+
+    public static TokenBatchBuilder builder(TokenHandler tokenHandler) {
+        return new TokenBatchBuilder(tokenHandler);
+    }
+
+    /**
+     * Signs {@code count} tokens and passes each to {@code consumer}, in no particular order. The consumer is called
+     * from the executor's threads, possibly concurrently, and must be thread-safe.
+     */
+    public void mint(int count, Consumer<String> consumer) {
+        run(count, (from, to) -> {
+            for (int i = from; i < to; i++) {
+                consumer.accept(sign(i));
+            }
+        });
+    }
+
+    /**
+     * Signs {@code count} tokens and writes them to {@code file}, one per line, in no particular order. Each chunk of
+     * tokens is written in one go, so the threads rarely wait for each other.
+     */
+    public void mintTo(Path file, int count) throws IOException {
+        try (var writer = Files.newBufferedWriter(file, StandardCharsets.US_ASCII)) {
+            run(count, (from, to) -> {
+                var chunk = new StringBuilder((to - from) * 512);
+                for (int i = from; i < to; i++) {
+                    chunk.append(sign(i)).append('\n');
+                }
+                write(writer, chunk);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private String sign(int index) {
+        var claims = TokenClaims.builder().withClaims(template.getClaimsMap());
+        customizer.accept(claims, index);
+        return tokenHandler.getSignedToken(headers, claims.build());
+    }
+
+    private static void write(Writer writer, CharSequence chunk) {
+        try {
+            synchronized (writer) {
+                writer.append(chunk);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void run(int count, ChunkTask task) {
+        if (count < 0) throw new IllegalArgumentException("count must not be negative, was " + count);
+        var executorService = virtualThreads ? VirtualThreads.newVirtualThreadPerTaskExecutor() : null;
+        var target = executorService != null ? executorService : executor;
+        try {
+            var chunks = new ArrayList<FutureTask<Void>>();
+            for (int from = 0; from < count; from += CHUNK_SIZE) {
+                int start = from;
+                int end = Math.min(count, from + CHUNK_SIZE);
+                var chunk = new FutureTask<Void>(() -> task.run(start, end), null);
+                chunks.add(chunk);
+                target.execute(chunk);
+            }
+            awaitAll(chunks);
+        } finally {
+            if (executorService != null) executorService.shutdown();
+        }
+    }
+
+    private static void awaitAll(List<FutureTask<Void>> chunks) {
+        try {
+            for (var chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while minting tokens", e);
+        } catch (ExecutionException e) {
+            chunks.forEach(chunk -> chunk.cancel(true));
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            if (e.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private interface ChunkTask {
+        void run(int from, int to);
+    }
+
+    public static class TokenBatchBuilder {
+        private final TokenHandler tokenHandler;
+        private TokenHeaders headers = TokenHeaders.builder().build();
+        private TokenClaims template = TokenClaims.builder().build();
+        private ObjIntConsumer<TokenClaims.TokenClaimsBuilder> customizer = (claims, index) -> { };
+        private Executor executor = ForkJoinPool.commonPool();
+        private boolean virtualThreads;
+
+        private TokenBatchBuilder(TokenHandler tokenHandler) {
+            this.tokenHandler = tokenHandler;
+        }
+
+        public TokenBatchBuilder withHeaders(TokenHeaders headers) {
+            this.headers = headers;
+            return this;
+        }
+
+        public TokenBatchBuilder withClaims(TokenClaims template) {
+            this.template = template;
+            return this;
+        }
+
+        /**
+         * @param customizer called once per token with a builder holding a copy of the template claims and the token's
+         *                   index, from 0 up to the count
+         */
+        public TokenBatchBuilder withCustomizer(ObjIntConsumer<TokenClaims.TokenClaimsBuilder> customizer) {
+            this.customizer = customizer;
+            return this;
+        }
+
+        public TokenBatchBuilder withExecutor(Executor executor) {
+            this.executor = executor;
+            this.virtualThreads = false;
+            return this;
+        }
+
+        /**
+         * Signs each chunk on its own virtual thread when the JVM supports them (Java 21 and later), and on the
+         * executor otherwise. Signing is CPU bound, so this mostly helps when the consumer blocks.
+         */
+        public TokenBatchBuilder withVirtualThreads() {
+            this.virtualThreads = true;
+            return this;
+        }
+
+        public TokenBatch build() {
+            return new TokenBatch(this);
+        }
+    }
+}
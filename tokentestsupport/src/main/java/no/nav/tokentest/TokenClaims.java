@@ -1,6 +1,6 @@
 package no.nav.tokentest;
 
-import java.time.Instant;
+import java.time.Clock;
 import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.Map;
@@ -29,7 +29,20 @@ public class TokenClaims {
         }
 
         public TokenClaimsBuilder withDefaultClaims() {
-            claimsMap.putAll(defaultClaims());
+            return withDefaultClaims(Clock.systemUTC());
+        }
+
+        /**
+         * The default claims, with {@code exp}, {@code nbf} and {@code iat} relative to {@code clock}, for instance a
+         * {@link MutableClock}.
+         */
+        public TokenClaimsBuilder withDefaultClaims(Clock clock) {
+            var now = clock.instant();
+            claimsMap.put("iss", "tokentestsupport-TokenHandler");
+            claimsMap.put("exp", now.plus(5, ChronoUnit.MINUTES).getEpochSecond());
+            claimsMap.put("nbf", now.minus(1, ChronoUnit.MINUTES).getEpochSecond());
+            claimsMap.put("iat", now.getEpochSecond());
+            claimsMap.put("jti", JtiGenerator.next());
             return this;
         }
 
@@ -38,16 +51,6 @@ public class TokenClaims {
             return this;
         }
 
-        private Map<String, Object> defaultClaims() {
-            var defaultClaims = new HashMap<String, Object>();
-            defaultClaims.put("iss", "tokentestsupport-TokenHandler");
-            defaultClaims.put("exp", Instant.now().plus(5, ChronoUnit.MINUTES).getEpochSecond());
-            defaultClaims.put("nbf", Instant.now().minus(1, ChronoUnit.MINUTES).getEpochSecond());
-            defaultClaims.put("iat", Instant.now().getEpochSecond());
-            defaultClaims.put("jti", "testid");
-            return defaultClaims;
-        }
-
         public TokenClaims build() {
             return new TokenClaims(claimsMap);
         }
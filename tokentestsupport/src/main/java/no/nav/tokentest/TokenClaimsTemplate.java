@@ -0,0 +1,162 @@
+package no.nav.tokentest;
+
+import com.google.gson.Gson;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable claims payload for minting many tokens that differ only in time, subject and id. The static claims are
+ * serialized to JSON once, when the template is built; {@link #payload(String, String)} only appends {@code exp},
+ * {@code nbf}, {@code iat} and, if given, {@code sub} and {@code jti}, into one {@link StringBuilder}. Sign the result
+ * with {@link TokenHandler#getSignedToken(TokenHeaders, String)}.
+ * <p>
+ * The times follow {@link TokenClaims.TokenClaimsBuilder#withDefaultClaims()}: {@code iat} now, {@code nbf} one minute
+ * ago and {@code exp} in five minutes, unless changed on the builder.
+ */
+public class TokenClaimsTemplate {
+    private static final Gson GSON = new Gson();
+    private static final Set<String> DYNAMIC_CLAIMS = Set.of("exp", "nbf", "iat", "jti", "sub");
+
+    private final String prefix;
+    private final long lifetimeSeconds;
+    private final long notBeforeSeconds;
+    private final Clock clock;
+
+    private TokenClaimsTemplate(Map<String, Object> staticClaims, Duration lifetime, Duration notBefore, Clock clock) {
+        var json = GSON.toJson(staticClaims);
+        // Everything but the closing brace, and a comma if the dynamic claims need one
+        this.prefix = json.substring(0, json.length() - 1) + (staticClaims.isEmpty() ? "" : ",");
+        this.lifetimeSeconds = lifetime.toSeconds();
+        this.notBeforeSeconds = notBefore.toSeconds();
+        this.clock = clock;
+    }
+
+    public static TokenClaimsTemplateBuilder builder() {
+        return new TokenClaimsTemplateBuilder();
+    }
+
+    /**
+     * A payload without {@code sub} and with a unique {@code jti} from {@link JtiGenerator}.
+     */
+    public String payload() {
+        return payload(null, JtiGenerator.next());
+    }
+
+    /**
+     * @param subject the {@code sub} claim, or {@code null} for none
+     * @param jti     the {@code jti} claim, or {@code null} for none
+     */
+    public String payload(String subject, String jti) {
+        long now = clock.millis() / 1000;
+        var payload = new StringBuilder(prefix.length() + 128).append(prefix)
+                .append("\"exp\":").append(now + lifetimeSeconds)
+                .append(",\"nbf\":").append(now - notBeforeSeconds)
+                .append(",\"iat\":").append(now);
+        if (subject != null) appendString(payload.append(",\"sub\":"), subject);
+        if (jti != null) appendString(payload.append(",\"jti\":"), jti);
+        return payload.append('}').toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        json.append('"');
+    }
+
+    public static class TokenClaimsTemplateBuilder {
+        private final Map<String, Object> claimsMap = new LinkedHashMap<>();
+        private Duration lifetime = Duration.ofMinutes(5);
+        private Duration notBefore = Duration.ofMinutes(1);
+        private Clock clock = Clock.systemUTC();
+        private TokenClaimsTemplateBuilder(){}
+
+        /**
+         * Sets {@code iss} as {@link TokenClaims.TokenClaimsBuilder#withDefaultClaims()} does. The time claims are
+         * always set.
+         */
+        public TokenClaimsTemplateBuilder withDefaultClaims() {
+            claimsMap.put("iss", "tokentestsupport-TokenHandler");
+            return this;
+        }
+
+        /**
+         * Copies the claims, except {@code exp}, {@code nbf}, {@code iat}, {@code jti} and {@code sub}, which are set per
+         * token.
+         */
+        public TokenClaimsTemplateBuilder withClaims(TokenClaims claims) {
+            claims.getClaimsMap().forEach((key, value) -> {
+                if (!DYNAMIC_CLAIMS.contains(key)) claimsMap.put(key, value);
+            });
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if a claim is one the template sets per token
+         */
+        public TokenClaimsTemplateBuilder withClaims(Map<String, Object> claimsMap) {
+            claimsMap.forEach(this::withClaim);
+            return this;
+        }
+
+        /**
+         * @throws IllegalArgumentException if {@code key} is {@code exp}, {@code nbf}, {@code iat}, {@code jti} or
+         *                                  {@code sub}; those come from the lifetime settings and
+         *                                  {@link TokenClaimsTemplate#payload(String, String)}
+         */
+        public TokenClaimsTemplateBuilder withClaim(String key, Object value) {
+            if (DYNAMIC_CLAIMS.contains(key)) {
+                throw new IllegalArgumentException("The template sets " + key + " per token; it cannot be a static claim");
+            }
+            claimsMap.put(key, value);
+            return this;
+        }
+
+        /**
+         * How long after {@code iat} the token expires, five minutes by default.
+         */
+        public TokenClaimsTemplateBuilder withLifetime(Duration lifetime) {
+            this.lifetime = lifetime;
+            return this;
+        }
+
+        /**
+         * How long before {@code iat} the token becomes valid, one minute by default.
+         */
+        public TokenClaimsTemplateBuilder withNotBefore(Duration notBefore) {
+            this.notBefore = notBefore;
+            return this;
+        }
+
+        /**
+         * The clock the time claims are taken from, the system clock by default.
+         */
+        public TokenClaimsTemplateBuilder withClock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public TokenClaimsTemplate build() {
+            return new TokenClaimsTemplate(claimsMap, lifetime, notBefore, clock);
+        }
+    }
+}
@@ -2,54 +2,127 @@ package no.nav.tokentest;
 
 import com.google.gson.Gson;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.gson.io.GsonDeserializer;
+import io.jsonwebtoken.gson.io.GsonSerializer;
+import io.jsonwebtoken.io.Deserializer;
+import io.jsonwebtoken.io.Serializer;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.security.KeyPairGenerator;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyPair;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
-import java.security.UnrecoverableKeyException;
-import java.security.cert.CertificateException;
+import java.security.Signature;
+import java.security.interfaces.ECKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPublicKey;
+import java.security.spec.MGF1ParameterSpec;
+import java.security.spec.PSSParameterSpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Signs and validates tokens with a keyring of RSA or EC key pairs, RS256 by default. ES256 signs several times faster
+ * than RS256 but verifies slower, so it suits minting tokens for load tests; see {@code TokenHandlerAlgorithmBenchmark}.
+ * <p>
+ * Every key has a kid, by default its RFC 7638 thumbprint. Tokens are signed with the current key. Its kid goes in the
+ * header, unless the caller sets one, when the keyring holds more than one key or the kid was given explicitly. A
+ * handler with a single thumbprint key signs without a kid, so its tokens match the document from
+ * {@link #getJWKS(String)} whatever kid that is asked for. Tokens are validated with the key their kid names, with the
+ * current key if the kid is unknown, and with whichever key in the keyring signed them if they have no kid, so tokens
+ * minted before the first rotation keep validating. {@link #rotateKey()} adds a new current key and keeps the old ones
+ * for validation and in {@link #getJWKS()} until they are removed, as an identity provider does during rotation.
+ * <p>
+ * The parser and the JSON (de)serializers are built once and are immutable, and the keyring is replaced as a whole on
+ * every change, so a single handler can be shared by any number of threads.
+ */
 public class TokenHandler {
-    private PrivateKey privateKey;
-    private PublicKey publicKey;
+    // Set explicitly so jjwt does not look them up through the ServiceLoader for every token
+    private static final Serializer<Map<String, ?>> SERIALIZER = new GsonSerializer<>();
+    private static final Deserializer<Map<String, ?>> DESERIALIZER = new GsonDeserializer<>();
+    private static final Gson GSON = new Gson();
+    // The key that signed a token without a kid, found before jjwt asks the resolver, which cannot see the signature
+    private static final ThreadLocal<SigningKey> KIDLESS_KEY = new ThreadLocal<>();
+
+    private final JwtParser parser;
+    private final ValidationCache validationCache;
+    private final Clock clock;
+    private final TokenHandlerListener listener;
+    private volatile Keyring keyring;
 
     public TokenHandler() {
         this(false);
     }
     public TokenHandler(boolean staticKeyPair) {
-        try {
-            if (staticKeyPair) {
-                InputStream is = TokenHandler.class.getResourceAsStream("/teststatkeystore.jks");
-                var keystore = KeyStore.getInstance(KeyStore.getDefaultType());
-                keystore.load(is, "test1234".toCharArray());
-                this.privateKey = (PrivateKey) keystore.getKey("teststatkey", "test1234".toCharArray());
-                this.publicKey = keystore.getCertificate("teststatkey").getPublicKey();
-            } else {
-                KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
-                var keyPair = keyPairGenerator.generateKeyPair();
-                this.privateKey = keyPair.getPrivate();
-                this.publicKey = keyPair.getPublic();
-            }
-        } catch (IOException | CertificateException | NoSuchAlgorithmException | UnrecoverableKeyException | KeyStoreException e) {
-            throw new RuntimeException(e);
-        }
+        this(staticKeyPair ? StaticKeyPair.get() : KeyPairPool.getDefault().take());
+    }
+
+    /**
+     * Uses a key pair from elsewhere, for instance from a {@link KeyPairPool} of your own. RSA keys sign with RS256, EC
+     * keys with the ES algorithm matching their curve.
+     */
+    public TokenHandler(KeyPair keyPair) {
+        this(keyPair, defaultAlgorithm(keyPair));
+    }
+
+    public TokenHandler(KeyPair keyPair, SignatureAlgorithm algorithm) {
+        this(null, keyPair, algorithm, null, Clock.systemUTC(), null);
+    }
+
+    private TokenHandler(String kid, KeyPair keyPair, SignatureAlgorithm algorithm, ValidationCache validationCache,
+                         Clock clock, TokenHandlerListener listener) {
+        this.validationCache = validationCache;
+        this.clock = clock;
+        this.listener = listener;
+        var key = kid == null ? new SigningKey(thumbprint(keyPair.getPublic()), false, keyPair, algorithm)
+                : new SigningKey(kid, true, keyPair, algorithm);
+        this.keyring = Keyring.of(Map.of(key.kid, key), key);
+        this.parser = parserBuilder().build();
+    }
+
+    public static TokenHandlerBuilder builder() {
+        return new TokenHandlerBuilder();
     }
 
     public String getSignedToken(String payload) {
-        return Jwts.builder().setPayload(payload)
-                .signWith(SignatureAlgorithm.RS256, privateKey).compact();
+        return getSignedToken(TokenHeaders.builder().build(), payload);
+    }
+
+    /**
+     * Signs a payload that is already JSON, for instance from a {@link TokenClaimsTemplate}, without parsing it.
+     */
+    public String getSignedToken(TokenHeaders headers, String payload) {
+        var ring = keyring;
+        var builder = Jwts.builder().serializeToJsonWith(SERIALIZER).setHeader(headers.getHeadersMap());
+        return sign(withKid(builder, headers, ring).setPayload(payload), ring.current);
     }
 
     public String getSignedToken(TokenClaims claims) {
@@ -57,41 +130,647 @@ public class TokenHandler {
     }
 
     public String getSignedToken(TokenHeaders headers, TokenClaims claims) {
-        return Jwts.builder().setHeader(headers.getHeadersMap()).setClaims(claims.getClaimsMap())
-                .signWith(SignatureAlgorithm.RS256, privateKey).compact();
+        var ring = keyring;
+        var builder = Jwts.builder().serializeToJsonWith(SERIALIZER).setHeader(headers.getHeadersMap());
+        return sign(withKid(builder, headers, ring).setClaims(claims.getClaimsMap()), ring.current);
+    }
+
+    private static JwtBuilder withKid(JwtBuilder builder, TokenHeaders headers, Keyring ring) {
+        if (ring.signWithKid && !headers.getHeadersMap().containsKey("kid")) builder.setHeaderParam("kid", ring.current.kid);
+        return builder;
+    }
+
+    private String sign(JwtBuilder builder, SigningKey key) {
+        builder.signWith(key.privateKey, key.algorithm);
+        if (listener == null) return builder.compact();
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            var jwt = builder.compact();
+            success = true;
+            return jwt;
+        } finally {
+            listener.onOperation(TokenHandlerListener.Operation.SIGN, System.nanoTime() - start, success);
+        }
     }
 
     public Claims validateAndParseToken(String jwt) {
         return validateAndParseTokenToJwts(jwt).getBody();
     }
 
+    /**
+     * With a validation cache, a token validated before is returned from the cache without checking the signature
+     * again. The cached {@link Claims} are shared between callers and must not be modified.
+     */
     public Jws<Claims> validateAndParseTokenToJwts(String jwt) {
-        return Jwts.parser()
-                .setSigningKey(publicKey)
-                .parseClaimsJws(jwt);
+        return validate(parser, validationCache, jwt);
+    }
+
+    /**
+     * Validates like {@link #validateAndParseToken(String)}, but verifies the signature over the raw bytes of the token
+     * and returns a lazy {@link ClaimsView} of the payload instead of a {@code Claims} map, so only the claims the
+     * caller reads are ever decoded. Checks {@code exp} and {@code nbf} against the clock. Compressed and unsigned
+     * tokens are not supported, and the validation cache is not used.
+     *
+     * @throws SignatureException if the signature does not match, or the header's algorithm does not suit the key
+     * @throws ExpiredJwtException if the token has expired; its {@code getClaims()} is {@code null}
+     * @throws PrematureJwtException if the token is not valid yet; its {@code getClaims()} is {@code null}
+     * @throws MalformedJwtException if the token is not three base64url parts with JSON objects in the first two
+     */
+    public ClaimsView validateToClaimsView(String jwt) {
+        if (listener == null) return verify(jwt);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            var claims = verify(jwt);
+            success = true;
+            return claims;
+        } finally {
+            listener.onOperation(TokenHandlerListener.Operation.VALIDATE, System.nanoTime() - start, success);
+        }
+    }
+
+    private ClaimsView verify(String jwt) {
+        if (jwt == null || jwt.isEmpty()) throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        int firstDot = jwt.indexOf('.');
+        int secondDot = firstDot < 0 ? -1 : jwt.indexOf('.', firstDot + 1);
+        if (firstDot <= 0 || secondDot < 0 || jwt.indexOf('.', secondDot + 1) >= 0) {
+            throw new MalformedJwtException("JWT strings must contain exactly 2 period characters.");
+        }
+        if (secondDot == jwt.length() - 1) throw new UnsupportedJwtException("Unsigned tokens are not supported.");
+        var token = jwt.getBytes(StandardCharsets.US_ASCII);
+        var header = view(token, 0, firstDot);
+        if (header.has("zip")) throw new UnsupportedJwtException("Compressed tokens are not supported.");
+        var algorithm = SignatureAlgorithm.forName(header.getString("alg"));
+        var kid = header.getString("kid");
+        var ring = keyring;
+        var key = kid != null ? ring.keys.getOrDefault(kid, ring.current) : kidlessKey(ring, token, secondDot, algorithm);
+        if (!fits(algorithm, key)) {
+            throw new SignatureException(algorithm + " cannot be used with the " + key.algorithm + " key " + key.kid);
+        }
+        try {
+            if (!verifies(token, secondDot, algorithm, key)) {
+                throw new SignatureException("JWT signature does not match locally computed signature. JWT validity "
+                        + "cannot be asserted and should not be trusted.");
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new SignatureException("Unable to verify the " + algorithm + " signature", e);
+        }
+        var claims = view(token, firstDot + 1, secondDot);
+        long now = clock.millis();
+        long expiration = claims.getExpiration();
+        if (expiration != ClaimsView.ABSENT && now > expiration * 1000) {
+            throw new ExpiredJwtException(null, null, "JWT expired at " + Instant.ofEpochSecond(expiration)
+                    + ". Current time: " + Instant.ofEpochMilli(now) + ".");
+        }
+        long notBefore = claims.getNotBefore();
+        if (notBefore != ClaimsView.ABSENT && now < notBefore * 1000) {
+            throw new PrematureJwtException(null, null, "JWT must not be accepted before "
+                    + Instant.ofEpochSecond(notBefore) + ". Current time: " + Instant.ofEpochMilli(now) + ".");
+        }
+        return claims;
+    }
+
+    /**
+     * The key that signed a token without a kid: the current key if it did, otherwise the first other key in the
+     * keyring that did, or the current key if none did, so the caller reports the mismatch. The keyring is small, and
+     * a handler with a single key never searches.
+     */
+    private static SigningKey kidlessKey(Keyring ring, byte[] token, int secondDot, SignatureAlgorithm algorithm) {
+        if (ring.keys.size() == 1) return ring.current;
+        if (signedBy(token, secondDot, algorithm, ring.current)) return ring.current;
+        for (var key : ring.keys.values()) {
+            if (key != ring.current && signedBy(token, secondDot, algorithm, key)) return key;
+        }
+        return ring.current;
+    }
+
+    private static boolean signedBy(byte[] token, int secondDot, SignatureAlgorithm algorithm, SigningKey key) {
+        try {
+            return fits(algorithm, key) && verifies(token, secondDot, algorithm, key);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean fits(SignatureAlgorithm algorithm, SigningKey key) {
+        return algorithm.isRsa() ? key.publicKey instanceof RSAPublicKey : algorithm == key.algorithm;
+    }
+
+    private static boolean verifies(byte[] token, int secondDot, SignatureAlgorithm algorithm, SigningKey key)
+            throws GeneralSecurityException {
+        var signature = verifier(algorithm);
+        signature.initVerify(key.publicKey);
+        signature.update(token, 0, secondDot);
+        var signatureBytes = Base64.getUrlDecoder()
+                .decode(ByteBuffer.wrap(token, secondDot + 1, token.length - secondDot - 1));
+        return signature.verify(signatureBytes.array(), 0, signatureBytes.limit());
+    }
+
+    private static ClaimsView view(byte[] token, int start, int end) {
+        var json = decode(token, start, end);
+        return new ClaimsView(json.array(), json.limit());
+    }
+
+    private static ByteBuffer decode(byte[] token, int start, int end) {
+        try {
+            return Base64.getUrlDecoder().decode(ByteBuffer.wrap(token, start, end - start));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedJwtException("Invalid base64url in token", e);
+        }
+    }
+
+    /**
+     * A new {@link Signature} for {@code algorithm}; they are cheap to create and not thread-safe. ES signatures in a
+     * JWS are the raw R and S values, which the JDK reads directly in the P1363 format.
+     */
+    private static Signature verifier(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        return switch (algorithm) {
+            case RS256, RS384, RS512 -> Signature.getInstance(algorithm.getJcaName());
+            case ES256, ES384, ES512 -> Signature.getInstance(algorithm.getJcaName() + "inP1363Format");
+            case PS256 -> pss("SHA-256", MGF1ParameterSpec.SHA256, 32);
+            case PS384 -> pss("SHA-384", MGF1ParameterSpec.SHA384, 48);
+            case PS512 -> pss("SHA-512", MGF1ParameterSpec.SHA512, 64);
+            default -> throw new UnsupportedJwtException(algorithm + " is not an RSA or EC signature algorithm");
+        };
+    }
+
+    private static Signature pss(String digest, MGF1ParameterSpec mgf, int saltLength) throws GeneralSecurityException {
+        var signature = Signature.getInstance("RSASSA-PSS");
+        signature.setParameter(new PSSParameterSpec(digest, "MGF1", mgf, saltLength, 1));
+        return signature;
+    }
+
+    /**
+     * A builder for a {@link TokenValidator} that checks claims while validating with this handler's keys and clock.
+     */
+    public TokenValidator.TokenValidatorBuilder validator() {
+        return new TokenValidator.TokenValidatorBuilder(this);
+    }
+
+    /**
+     * A parser builder set up with the keyring, the clock and the deserializer, for {@link TokenValidator} to add its
+     * requirements to.
+     */
+    JwtParserBuilder parserBuilder() {
+        return Jwts.parserBuilder()
+                .setSigningKeyResolver(new KeyringResolver())
+                .setClock(() -> Date.from(clock.instant()))
+                .deserializeJsonWith(DESERIALIZER);
+    }
+
+    Jws<Claims> validate(JwtParser parser, ValidationCache validationCache, String jwt) {
+        if (listener == null) return parse(parser, validationCache, jwt);
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            var jws = parse(parser, validationCache, jwt);
+            success = true;
+            return jws;
+        } finally {
+            listener.onOperation(TokenHandlerListener.Operation.VALIDATE, System.nanoTime() - start, success);
+        }
+    }
+
+    private Jws<Claims> parse(JwtParser parser, ValidationCache validationCache, String jwt) {
+        if (validationCache == null) return parseClaimsJws(parser, jwt);
+        long now = clock.millis();
+        var cached = validationCache.get(jwt, now);
+        if (cached != null) return cached;
+        var jws = parseClaimsJws(parser, jwt);
+        validationCache.put(jwt, jws, now);
+        return jws;
+    }
+
+    private Jws<Claims> parseClaimsJws(JwtParser parser, String jwt) {
+        var ring = keyring;
+        var key = ring.keys.size() == 1 ? null : kidlessKey(ring, jwt);
+        if (key == null) return parser.parseClaimsJws(jwt);
+        KIDLESS_KEY.set(key);
+        try {
+            return parser.parseClaimsJws(jwt);
+        } finally {
+            KIDLESS_KEY.remove();
+        }
+    }
+
+    /**
+     * {@link #kidlessKey(Keyring, byte[], int, SignatureAlgorithm)} for a token jjwt is about to parse, or {@code null}
+     * if it has a kid or is malformed, which jjwt then handles and reports as usual.
+     */
+    private static SigningKey kidlessKey(Keyring ring, String jwt) {
+        int firstDot = jwt == null ? -1 : jwt.indexOf('.');
+        int secondDot = firstDot <= 0 ? -1 : jwt.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || secondDot == jwt.length() - 1) return null;
+        try {
+            var token = jwt.getBytes(StandardCharsets.US_ASCII);
+            var header = view(token, 0, firstDot);
+            if (header.has("kid")) return null;
+            return kidlessKey(ring, token, secondDot, SignatureAlgorithm.forName(header.getString("alg")));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The clock validation checks {@code exp} and {@code nbf} against, the system clock unless the builder set one.
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    public ValidationCacheStats getValidationCacheStats() {
+        return validationCache == null ? new ValidationCacheStats(0, 0, 0) : validationCache.stats();
+    }
+
+    /**
+     * Adds a key that validates tokens and is published in {@link #getJWKS()}, without signing with it yet.
+     *
+     * @return the key's kid, its thumbprint
+     */
+    public String addKey(KeyPair keyPair) {
+        var kid = thumbprint(keyPair.getPublic());
+        addKey(new SigningKey(kid, false, keyPair, defaultAlgorithm(keyPair)));
+        return kid;
+    }
+
+    public void addKey(String kid, KeyPair keyPair, SignatureAlgorithm algorithm) {
+        addKey(new SigningKey(kid, true, keyPair, algorithm));
+    }
+
+    private synchronized void addKey(SigningKey key) {
+        var ring = keyring;
+        if (ring.keys.containsKey(key.kid)) {
+            throw new IllegalArgumentException("The keyring already has a key with kid " + key.kid);
+        }
+        var keys = new LinkedHashMap<>(ring.keys);
+        keys.put(key.kid, key);
+        keyring = Keyring.of(keys, ring.current);
+    }
+
+    /**
+     * Signs with the key named by {@code kid} from now on.
+     */
+    public synchronized void useKey(String kid) {
+        var ring = keyring;
+        var key = ring.keys.get(kid);
+        if (key == null) throw new IllegalArgumentException("No key with kid " + kid);
+        keyring = Keyring.of(ring.keys, key);
     }
 
+    /**
+     * Generates a key pair with the current key's algorithm, adds it and signs with it from now on. The previous keys
+     * stay in the keyring.
+     *
+     * @return the new key's kid
+     */
+    public synchronized String rotateKey() {
+        var algorithm = keyring.current.algorithm;
+        var keyPair = generateKeyPair(algorithm, listener);
+        var kid = thumbprint(keyPair.getPublic());
+        addKey(new SigningKey(kid, false, keyPair, algorithm));
+        useKey(kid);
+        return kid;
+    }
+
+    /**
+     * Removes a key, so tokens signed with it no longer validate and it disappears from {@link #getJWKS()}.
+     *
+     * @throws IllegalArgumentException if {@code kid} names the current key
+     */
+    public synchronized void removeKey(String kid) {
+        var ring = keyring;
+        if (ring.current.kid.equals(kid)) throw new IllegalArgumentException("Cannot remove the current key " + kid);
+        if (!ring.keys.containsKey(kid)) return;
+        var keys = new LinkedHashMap<>(ring.keys);
+        keys.remove(kid);
+        keyring = Keyring.of(keys, ring.current);
+        // Tokens signed with the removed key must stop validating
+        if (validationCache != null) validationCache.clear();
+    }
+
+    public String getKid() {
+        return keyring.current.kid;
+    }
+
+    /**
+     * The kids in the keyring, in the order they were added.
+     */
+    public List<String> getKids() {
+        return List.copyOf(keyring.keys.keySet());
+    }
+
+    /**
+     * Every key in the keyring as a JWKS document. The document is built once per change to the keyring.
+     */
+    public String getJWKS() {
+        long start = listener == null ? 0 : System.nanoTime();
+        var json = keyring.jwks.json();
+        jwksDone(start);
+        return json;
+    }
+
+    /**
+     * {@link #getJWKS()} encoded as UTF-8, as a new read-only view of the cached bytes.
+     */
+    public ByteBuffer getJWKSBytes() {
+        long start = listener == null ? 0 : System.nanoTime();
+        var bytes = ByteBuffer.wrap(keyring.jwks.utf8()).asReadOnlyBuffer();
+        jwksDone(start);
+        return bytes;
+    }
+
+    /**
+     * The cached bytes behind {@link #getJWKSBytes()}, for {@link MockOidcServer}. Must not be modified.
+     */
+    byte[] getJWKSUtf8() {
+        return keyring.jwks.utf8();
+    }
+
+    /**
+     * A JWKS document with the one key that tokens named {@code kid} are validated with. That is the key with that kid
+     * if the keyring has one. Otherwise it is the current key: under {@code kid} while the handler signs without a kid,
+     * and under its own kid once the handler puts that in its tokens, so verifiers that match on kid accept them. The
+     * document is built once per key and kid.
+     */
     public String getJWKS(String kid) {
-        var publicKey = (RSAPublicKey) this.publicKey;
+        long start = listener == null ? 0 : System.nanoTime();
+        var json = jwks(kid).json();
+        jwksDone(start);
+        return json;
+    }
+
+    /**
+     * {@link #getJWKS(String)} encoded as UTF-8, ready to write to a socket or an HTTP response. Every call returns a
+     * new read-only view of the same cached bytes, positioned at the start.
+     */
+    public ByteBuffer getJWKSBytes(String kid) {
+        long start = listener == null ? 0 : System.nanoTime();
+        var bytes = ByteBuffer.wrap(jwks(kid).utf8()).asReadOnlyBuffer();
+        jwksDone(start);
+        return bytes;
+    }
+
+    private EncodedJwks jwks(String kid) {
+        var ring = keyring;
+        var key = kid == null ? null : ring.keys.get(kid);
+        if (key != null) return key.encodedJwks(kid);
+        return ring.current.encodedJwks(ring.signWithKid ? ring.current.kid : kid);
+    }
+
+    private void jwksDone(long start) {
+        if (listener != null) listener.onOperation(TokenHandlerListener.Operation.JWKS, System.nanoTime() - start, true);
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return keyring.current.algorithm;
+    }
+
+    public PublicKey getPublicKey() {
+        return keyring.current.publicKey;
+    }
+
+    public PrivateKey getPrivateKey() {
+        return keyring.current.privateKey;
+    }
+
+    private static EncodedJwks encode(List<Jwks.Keys> keys) {
+        var jwks = new Jwks();
+        jwks.setKeys(new ArrayList<>(keys));
+        var json = GSON.toJson(jwks);
+        return new EncodedJwks(json, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Jwks.Keys jwk(String kid, PublicKey publicKey, SignatureAlgorithm algorithm) {
         var key = new Jwks.Keys();
-        key.setKty(publicKey.getAlgorithm());
         key.setKid(kid);
-        key.setN(Base64.getUrlEncoder().encodeToString(publicKey.getModulus().toByteArray()));
-        key.setE(Base64.getUrlEncoder().encodeToString(publicKey.getPublicExponent().toByteArray()));
-        key.setAlg("RS256");
+        key.setAlg(algorithm.getValue());
         key.setUse("sig");
-        var keys = new Jwks();
-        keys.setKeys(new ArrayList<>(Arrays.asList(key)));
+        if (publicKey instanceof ECPublicKey ecPublicKey) {
+            int fieldSize = ecPublicKey.getParams().getCurve().getField().getFieldSize();
+            key.setKty("EC");
+            key.setCrv("P-" + fieldSize);
+            key.setX(coordinate(ecPublicKey.getW().getAffineX(), (fieldSize + 7) / 8));
+            key.setY(coordinate(ecPublicKey.getW().getAffineY(), (fieldSize + 7) / 8));
+        } else {
+            var rsaPublicKey = (RSAPublicKey) publicKey;
+            key.setKty(rsaPublicKey.getAlgorithm());
+            var modulus = rsaPublicKey.getModulus();
+            var exponent = rsaPublicKey.getPublicExponent();
+            key.setN(coordinate(modulus, (modulus.bitLength() + 7) / 8));
+            key.setE(coordinate(exponent, (exponent.bitLength() + 7) / 8));
+        }
+        return key;
+    }
 
-        var gson = new Gson();
-        return gson.toJson(keys);
+    /**
+     * An EC coordinate or RSA parameter as RFC 7518 wants it: unsigned, big-endian, padded with zeros to
+     * {@code length} bytes, unpadded base64url.
+     */
+    private static String coordinate(BigInteger value, int length) {
+        var bytes = value.toByteArray();
+        var padded = new byte[length];
+        int copy = Math.min(bytes.length, length);
+        System.arraycopy(bytes, bytes.length - copy, padded, length - copy, copy);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(padded);
     }
 
-    public PublicKey getPublicKey() {
-        return publicKey;
+    /**
+     * The RFC 7638 JWK thumbprint: SHA-256 over the required members, in lexical order, without whitespace.
+     */
+    private static String thumbprint(PublicKey publicKey) {
+        String members;
+        if (publicKey instanceof ECPublicKey ecPublicKey) {
+            int fieldSize = ecPublicKey.getParams().getCurve().getField().getFieldSize();
+            members = "{\"crv\":\"P-" + fieldSize + "\",\"kty\":\"EC\",\"x\":\""
+                    + coordinate(ecPublicKey.getW().getAffineX(), (fieldSize + 7) / 8) + "\",\"y\":\""
+                    + coordinate(ecPublicKey.getW().getAffineY(), (fieldSize + 7) / 8) + "\"}";
+        } else {
+            var rsaPublicKey = (RSAPublicKey) publicKey;
+            var modulus = rsaPublicKey.getModulus();
+            var exponent = rsaPublicKey.getPublicExponent();
+            members = "{\"e\":\"" + coordinate(exponent, (exponent.bitLength() + 7) / 8) + "\",\"kty\":\"RSA\",\"n\":\""
+                    + coordinate(modulus, (modulus.bitLength() + 7) / 8) + "\"}";
+        }
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(members.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    public PrivateKey getPrivateKey() {
-        return privateKey;
+    private static KeyPair generateKeyPair(SignatureAlgorithm algorithm, TokenHandlerListener listener) {
+        long start = listener == null ? 0 : System.nanoTime();
+        // EC keys take a millisecond or so to generate, so they are not pooled
+        var keyPair = algorithm == SignatureAlgorithm.RS256 ? KeyPairPool.getDefault().take() : Keys.keyPairFor(algorithm);
+        if (listener != null) {
+            listener.onOperation(TokenHandlerListener.Operation.KEY_GENERATION, System.nanoTime() - start, true);
+        }
+        return keyPair;
+    }
+
+    private static SignatureAlgorithm defaultAlgorithm(KeyPair keyPair) {
+        if (!(keyPair.getPublic() instanceof ECKey ecKey)) return SignatureAlgorithm.RS256;
+        return switch (ecKey.getParams().getOrder().bitLength()) {
+            case 256 -> SignatureAlgorithm.ES256;
+            case 384 -> SignatureAlgorithm.ES384;
+            case 521 -> SignatureAlgorithm.ES512;
+            default -> throw new IllegalArgumentException("Unsupported EC curve " + ecKey.getParams());
+        };
+    }
+
+    private SigningKey verificationKey(String kid) {
+        var ring = keyring;
+        var key = kid == null ? KIDLESS_KEY.get() : ring.keys.get(kid);
+        return key != null ? key : ring.current;
+    }
+
+    private record EncodedJwks(String json, byte[] utf8) {
+    }
+
+    private static final class SigningKey {
+        private final String kid;
+        private final boolean explicitKid;
+        private final PrivateKey privateKey;
+        private final PublicKey publicKey;
+        private final SignatureAlgorithm algorithm;
+        private final Jwks.Keys jwk;
+        private final ConcurrentHashMap<String, EncodedJwks> jwksByKid = new ConcurrentHashMap<>();
+
+        /**
+         * @param explicitKid whether the caller chose the kid, rather than it being the thumbprint
+         */
+        private SigningKey(String kid, boolean explicitKid, KeyPair keyPair, SignatureAlgorithm algorithm) {
+            if (!algorithm.isRsa() && !algorithm.isEllipticCurve()) {
+                throw new IllegalArgumentException(algorithm + " is not an RSA or EC signature algorithm");
+            }
+            this.kid = kid;
+            this.explicitKid = explicitKid;
+            this.privateKey = keyPair.getPrivate();
+            this.publicKey = keyPair.getPublic();
+            this.algorithm = algorithm;
+            this.jwk = jwk(kid, publicKey, algorithm);
+        }
+
+        private EncodedJwks encodedJwks(String kid) {
+            // ConcurrentHashMap has no room for a null kid, and a document without one is rarely asked for twice
+            if (kid == null) return encode(List.of(TokenHandler.jwk(null, publicKey, algorithm)));
+            return jwksByKid.computeIfAbsent(kid, k -> encode(List.of(TokenHandler.jwk(k, publicKey, algorithm))));
+        }
+    }
+
+    /**
+     * An immutable snapshot of the keys, replaced as a whole on every change so lookups never need a lock.
+     */
+    private static final class Keyring {
+        private final Map<String, SigningKey> keys;
+        private final SigningKey current;
+        private final EncodedJwks jwks;
+        private final boolean signWithKid;
+
+        private Keyring(Map<String, SigningKey> keys, SigningKey current, EncodedJwks jwks) {
+            this.keys = keys;
+            this.current = current;
+            this.jwks = jwks;
+            this.signWithKid = keys.size() > 1 || current.explicitKid;
+        }
+
+        private static Keyring of(Map<String, SigningKey> keys, SigningKey current) {
+            var jwks = new ArrayList<Jwks.Keys>(keys.size());
+            for (var key : keys.values()) {
+                jwks.add(key.jwk);
+            }
+            return new Keyring(Collections.unmodifiableMap(new LinkedHashMap<>(keys)), current, encode(jwks));
+        }
+    }
+
+    // jjwt 0.11 declares the resolver methods with a raw JwsHeader, so JwsHeader<?> would not override them
+    @SuppressWarnings("rawtypes")
+    private final class KeyringResolver extends SigningKeyResolverAdapter {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            return verificationKey(header.getKeyId());
+        }
+
+        @Override
+        public Key resolveSigningKey(JwsHeader header, String plaintext) {
+            return verificationKey(header.getKeyId());
+        }
+
+        private Key verificationKey(String kid) {
+            return TokenHandler.this.verificationKey(kid).publicKey;
+        }
+    }
+
+    public static class TokenHandlerBuilder {
+        private SignatureAlgorithm algorithm = SignatureAlgorithm.RS256;
+        private boolean staticKeyPair;
+        private KeyPair keyPair;
+        private String kid;
+        private ValidationCache validationCache;
+        private Clock clock = Clock.systemUTC();
+        private TokenHandlerListener listener;
+        private TokenHandlerBuilder(){}
+
+        /**
+         * RS256, ES256, ES384 or ES512 for a generated or static key pair. Other RSA algorithms such as PS256 work
+         * with {@link #withKeyPair(KeyPair)}.
+         */
+        public TokenHandlerBuilder withAlgorithm(SignatureAlgorithm algorithm) {
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        /**
+         * Uses the key pair for the algorithm bundled in {@code teststatkeystore.jks}, the same in every JVM.
+         */
+        public TokenHandlerBuilder withStaticKeyPair() {
+            this.staticKeyPair = true;
+            return this;
+        }
+
+        public TokenHandlerBuilder withKeyPair(KeyPair keyPair) {
+            this.keyPair = keyPair;
+            return this;
+        }
+
+        /**
+         * The kid of the first key, instead of its thumbprint.
+         */
+        public TokenHandlerBuilder withKid(String kid) {
+            this.kid = kid;
+            return this;
+        }
+
+        /**
+         * Caches up to {@code maxSize} validated tokens, each for {@code ttl} or until its {@code exp}, whichever comes
+         * first. Meant for tests that validate the same few tokens over and over.
+         */
+        public TokenHandlerBuilder withValidationCache(int maxSize, Duration ttl) {
+            this.validationCache = new ValidationCache(maxSize, ttl);
+            return this;
+        }
+
+        /**
+         * The clock validation and the validation cache use, for instance a {@link MutableClock} to let tokens expire
+         * without waiting.
+         */
+        public TokenHandlerBuilder withClock(Clock clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public TokenHandlerBuilder withListener(TokenHandlerListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public TokenHandler build() {
+            var key = keyPair != null ? keyPair
+                    : staticKeyPair ? StaticKeyPair.get(algorithm)
+                    : generateKeyPair(algorithm, listener);
+            return new TokenHandler(kid, key, algorithm, validationCache, clock, listener);
+        }
     }
 }
@@ -0,0 +1,31 @@
+package no.nav.tokentest;
+
+/**
+ * Told how long each {@link TokenHandler} operation took, for metrics. Register one with
+ * {@link TokenHandler.TokenHandlerBuilder#withListener(TokenHandlerListener)}. Called on the thread that ran the
+ * operation, right after it finished, so it must be thread-safe and quick.
+ */
+@FunctionalInterface
+public interface TokenHandlerListener {
+
+    enum Operation {
+        /**
+         * Getting a key pair for a new handler or {@link TokenHandler#rotateKey()}, from the pool or generated.
+         */
+        KEY_GENERATION,
+        SIGN,
+        /**
+         * Includes answers from the validation cache.
+         */
+        VALIDATE,
+        /**
+         * Any of the {@code getJWKS} methods.
+         */
+        JWKS
+    }
+
+    /**
+     * @param success {@code false} if the operation threw, for instance because a token did not validate
+     */
+    void onOperation(Operation operation, long durationNanos, boolean success);
+}
@@ -0,0 +1,49 @@
+package no.nav.tokentest;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+/**
+ * The outcome of {@link TokenValidator#validate(String)}: the parsed token if it is valid, otherwise why not.
+ *
+ * @param jws       the parsed token, {@code null} unless valid
+ * @param failure   {@code null} if valid
+ * @param claimName the claim that was missing or wrong, for {@link Failure#MISSING_CLAIM} and
+ *                  {@link Failure#INCORRECT_CLAIM}
+ * @param message   jjwt's description of the failure, {@code null} if valid
+ */
+public record TokenValidationResult(Jws<Claims> jws, Failure failure, String claimName, String message) {
+
+    public enum Failure {
+        EXPIRED,
+        NOT_YET_VALID,
+        MISSING_CLAIM,
+        INCORRECT_CLAIM,
+        BAD_SIGNATURE,
+        MALFORMED,
+        /**
+         * Anything else jjwt rejects, for instance an unsigned token.
+         */
+        UNSUPPORTED
+    }
+
+    static TokenValidationResult valid(Jws<Claims> jws) {
+        return new TokenValidationResult(jws, null, null, null);
+    }
+
+    static TokenValidationResult invalid(Failure failure, String claimName, Exception cause) {
+        return new TokenValidationResult(null, failure, claimName, cause.getMessage());
+    }
+
+    public boolean isValid() {
+        return failure == null;
+    }
+
+    /**
+     * @throws IllegalStateException if the token is not valid
+     */
+    public Claims claims() {
+        if (jws == null) throw new IllegalStateException("The token is not valid: " + failure + ", " + message);
+        return jws.getBody();
+    }
+}
@@ -0,0 +1,106 @@
+package no.nav.tokentest;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.JwtParserBuilder;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.MissingClaimException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.SignatureException;
+
+import java.time.Duration;
+
+/**
+ * Validates tokens with a {@link TokenHandler}'s keys and clock and checks the expected claims in the same pass, so a
+ * test does not have to look them up in the {@code Claims} afterwards. The checks are compiled into one jjwt parser
+ * when the validator is built, and the validator is immutable and can be shared by any number of threads.
+ * <pre>{@code
+ * var validator = tokenHandler.validator().requireIssuer("tokentestsupport-TokenHandler").requireAudience("api").build();
+ * var result = validator.validate(jwt);
+ * if (!result.isValid()) fail(result.failure() + ": " + result.message());
+ * }</pre>
+ * Tokens with {@code exp} or {@code nbf} are always checked against the clock. A rejected token is reported in the
+ * result instead of thrown, and counts as a failed {@code VALIDATE} for the handler's listener.
+ */
+public final class TokenValidator {
+    private final TokenHandler tokenHandler;
+    private final JwtParser parser;
+
+    private TokenValidator(TokenHandler tokenHandler, JwtParser parser) {
+        this.tokenHandler = tokenHandler;
+        this.parser = parser;
+    }
+
+    @SuppressWarnings("deprecation") // The old SignatureException is the superclass of the new one, so it catches both
+    public TokenValidationResult validate(String jwt) {
+        try {
+            return TokenValidationResult.valid(tokenHandler.validate(parser, null, jwt));
+        } catch (ExpiredJwtException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.EXPIRED, null, e);
+        } catch (PrematureJwtException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.NOT_YET_VALID, null, e);
+        } catch (MissingClaimException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.MISSING_CLAIM, e.getClaimName(), e);
+        } catch (IncorrectClaimException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.INCORRECT_CLAIM, e.getClaimName(), e);
+        } catch (SignatureException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.BAD_SIGNATURE, null, e);
+        } catch (MalformedJwtException | IllegalArgumentException | ClassCastException e) {
+            // jjwt lets the ClassCastException through when a part decodes to JSON that is not an object
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.MALFORMED, null, e);
+        } catch (JwtException e) {
+            return TokenValidationResult.invalid(TokenValidationResult.Failure.UNSUPPORTED, null, e);
+        }
+    }
+
+    public static class TokenValidatorBuilder {
+        private final TokenHandler tokenHandler;
+        private final JwtParserBuilder parserBuilder;
+
+        TokenValidatorBuilder(TokenHandler tokenHandler) {
+            this.tokenHandler = tokenHandler;
+            this.parserBuilder = tokenHandler.parserBuilder();
+        }
+
+        public TokenValidatorBuilder requireIssuer(String issuer) {
+            parserBuilder.requireIssuer(issuer);
+            return this;
+        }
+
+        /**
+         * The token's {@code aud} must be this single string; jjwt does not look inside an {@code aud} array.
+         */
+        public TokenValidatorBuilder requireAudience(String audience) {
+            parserBuilder.requireAudience(audience);
+            return this;
+        }
+
+        public TokenValidatorBuilder requireSubject(String subject) {
+            parserBuilder.requireSubject(subject);
+            return this;
+        }
+
+        /**
+         * The claim must equal {@code value}. Strings and booleans compare as expected; JSON numbers are parsed as
+         * {@code Double}, so numeric claims must be given as one.
+         */
+        public TokenValidatorBuilder requireClaim(String name, Object value) {
+            parserBuilder.require(name, value);
+            return this;
+        }
+
+        /**
+         * How far {@code exp} and {@code nbf} may be off from the clock, zero unless set.
+         */
+        public TokenValidatorBuilder withAllowedClockSkew(Duration skew) {
+            parserBuilder.setAllowedClockSkewSeconds(skew.toSeconds());
+            return this;
+        }
+
+        public TokenValidator build() {
+            return new TokenValidator(tokenHandler, parserBuilder.build());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package no.nav.tokentest;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Validated tokens by their compact form, least recently used first out. An entry lives for the time to live or until
+ * the token's {@code exp}, whichever comes first, so a cached token never outlives its own validity. The whole token
+ * is the key, not just its hash, so two tokens can never be mistaken for each other.
+ */
+final class ValidationCache {
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, CacheEntry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    ValidationCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be positive, was " + maxSize);
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive, was " + ttl);
+        this.maxSize = maxSize;
+        this.ttlMillis = ttl.toMillis();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > ValidationCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cached result, or {@code null} if the token is not cached or its entry has expired
+     */
+    Jws<Claims> get(String jwt, long now) {
+        CacheEntry entry;
+        synchronized (entries) {
+            entry = entries.get(jwt);
+            if (entry != null && entry.expiresAt <= now) {
+                entries.remove(jwt);
+                entry = null;
+            }
+        }
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.jws;
+    }
+
+    void put(String jwt, Jws<Claims> jws, long now) {
+        long expiresAt = now + ttlMillis;
+        var expiration = jws.getBody().getExpiration();
+        if (expiration != null) expiresAt = Math.min(expiresAt, expiration.getTime());
+        if (expiresAt <= now) return;
+        synchronized (entries) {
+            entries.put(jwt, new CacheEntry(jws, expiresAt));
+        }
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    ValidationCacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new ValidationCacheStats(hits.sum(), misses.sum(), size);
+    }
+
+    private record CacheEntry(Jws<Claims> jws, long expiresAt) {
+    }
+}
@@ -0,0 +1,9 @@
+package no.nav.tokentest;
+
+/**
+ * Counters for the validation cache of a {@link TokenHandler}, all zero when the handler has none.
+ *
+ * @param size the number of tokens cached right now, expired entries included until they are looked up or evicted
+ */
+public record ValidationCacheStats(long hits, long misses, int size) {
+}
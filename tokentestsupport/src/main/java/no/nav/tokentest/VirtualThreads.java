@@ -0,0 +1,27 @@
+package no.nav.tokentest;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Virtual threads need Java 21 and this library targets 18, so the executor is looked up reflectively.
+ */
+final class VirtualThreads {
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return an executor that starts a virtual thread per task, or {@code null} on JVMs without virtual threads
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
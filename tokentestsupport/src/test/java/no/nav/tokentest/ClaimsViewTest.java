@@ -0,0 +1,166 @@
+package no.nav.tokentest;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.PrematureJwtException;
+import io.jsonwebtoken.RequiredTypeException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClaimsViewTest {
+
+    private static ClaimsView view(String json) {
+        var bytes = json.getBytes(StandardCharsets.UTF_8);
+        return new ClaimsView(bytes, bytes.length);
+    }
+
+    @Test
+    public void testLeserBareClaimsSomSpørresEtter() {
+        var claims = view(" { \"groups\" : [\"a\", {\"sub\": \"feil\"}], \"nested\":{\"exp\":1},"
+                + "\"sub\":\"bruker\", \"exp\" : 1700000000, \"nbf\":-5, \"ratio\":1.5e3, \"admin\":true, \"tom\":null }");
+
+        assertEquals("bruker", claims.getSubject());
+        assertEquals(1700000000L, claims.getExpiration());
+        assertEquals(-5L, claims.getNotBefore());
+        assertEquals(ClaimsView.ABSENT, claims.getIssuedAt());
+        assertEquals(1500L, claims.getLong("ratio", 0));
+        assertTrue(claims.has("admin"));
+        assertFalse(claims.has("iss"));
+        assertNull(claims.getIssuer());
+        assertNull(claims.getString("tom"));
+        assertThrows(RequiredTypeException.class, () -> claims.getString("exp"));
+        assertThrows(RequiredTypeException.class, () -> claims.getLong("admin", 0));
+    }
+
+    @Test
+    public void testDatoerLesesSomIJjwt() {
+        var claims = view("{\"exp\":null,\"nbf\":\"1700000000\",\"iat\":\"2023-11-14T22:13:20Z\",\"tall\":null,"
+                + "\"auth_time\":\"i går\"}");
+
+        assertEquals(ClaimsView.ABSENT, claims.getExpiration());
+        assertEquals(1700000000L, claims.getNotBefore());
+        assertEquals(1700000000L, claims.getIssuedAt());
+        assertEquals(7L, claims.getLong("tall", 7));
+        assertThrows(RequiredTypeException.class, () -> claims.getLong("nbf", 0));
+    }
+
+    @Test
+    public void testSisteVerdiGjelderForGjentatteClaims() {
+        var claims = view("{\"sub\":\"forste\",\"exp\":1,\"sub\":\"siste\",\"exp\":2}");
+
+        assertEquals("siste", claims.getSubject());
+        assertEquals(2L, claims.getExpiration());
+    }
+
+    @Test
+    public void testEscapedeStrenger() {
+        var claims = view("{\"a\\\"b\":\"x\\\"y\\\\z\\n\\u00e6\",\"navn\":\"Ærlig Øystein\",\"sti\":\"a\\/b\"}");
+
+        assertEquals("x\"y\\z\næ", claims.getString("a\"b"));
+        assertEquals("Ærlig Øystein", claims.getString("navn"));
+        assertEquals("a/b", claims.getString("sti"));
+    }
+
+    @Test
+    public void testUgyldigJson() {
+        assertThrows(MalformedJwtException.class, () -> view("[1, 2]").has("sub"));
+        assertThrows(MalformedJwtException.class, () -> view("{\"sub\":\"uavsluttet").getSubject());
+        assertThrows(MalformedJwtException.class, () -> view("{\"a\":1 \"sub\":\"x\"}").getSubject());
+        assertFalse(view("{}").has("sub"));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SignatureAlgorithm.class, names = {"RS256", "ES256", "ES384", "ES512"})
+    public void testValidererSignatur(SignatureAlgorithm algorithm) {
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().withAlgorithm(algorithm).build();
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims()
+                .withClaim("sub", "bruker").withClaim("groups", List.of("a", "b")).build());
+
+        var claims = tokenHandler.validateToClaimsView(signedToken);
+        var parsed = tokenHandler.validateAndParseToken(signedToken);
+
+        assertEquals(parsed.getSubject(), claims.getSubject());
+        assertEquals(parsed.getExpiration().getTime() / 1000, claims.getExpiration());
+        assertEquals(parsed.getId(), claims.getId());
+        assertThrows(SignatureException.class, () -> tokenHandler.validateToClaimsView(signedToken + "x"));
+        var parts = signedToken.split("\\.");
+        assertThrows(SignatureException.class, () -> tokenHandler.validateToClaimsView(parts[0] + ".e30." + parts[2]));
+    }
+
+    @Test
+    public void testPss() throws NoSuchAlgorithmException {
+        var tokenHandler = TokenHandler.builder().withAlgorithm(SignatureAlgorithm.PS256)
+                .withKeyPair(KeyPairGenerator.getInstance("RSA").generateKeyPair()).build();
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().withClaim("sub", "pss").build());
+
+        assertEquals("pss", tokenHandler.validateToClaimsView(signedToken).getSubject());
+    }
+
+    @Test
+    public void testAlgoritmeMaPasseNokkelen() {
+        var rsa = TokenHandler.builder().withStaticKeyPair().build();
+        var ec = TokenHandler.builder().withStaticKeyPair().withAlgorithm(SignatureAlgorithm.ES256).build();
+        var ecToken = ec.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+
+        assertThrows(SignatureException.class, () -> rsa.validateToClaimsView(ecToken));
+    }
+
+    @Test
+    public void testTidMotKlokken() {
+        var clock = MutableClock.now();
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().withClock(clock).build();
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims(clock).build());
+
+        clock.advance(Duration.ofMinutes(-2));
+        assertThrows(PrematureJwtException.class, () -> tokenHandler.validateToClaimsView(signedToken));
+        clock.advance(Duration.ofMinutes(4));
+        tokenHandler.validateToClaimsView(signedToken);
+        clock.advance(Duration.ofMinutes(10));
+        assertThrows(ExpiredJwtException.class, () -> tokenHandler.validateToClaimsView(signedToken));
+    }
+
+    @Test
+    public void testSammeClaimsSomJjwt() {
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().build();
+        var signedToken = tokenHandler.getSignedToken(
+                "{\"sub\":\"forste\",\"exp\":null,\"nbf\":\"1700000000\",\"sub\":\"siste\"}");
+
+        var claims = tokenHandler.validateToClaimsView(signedToken);
+        var parsed = tokenHandler.validateAndParseToken(signedToken);
+
+        assertEquals(parsed.getSubject(), claims.getSubject());
+        assertNull(parsed.getExpiration());
+        assertEquals(ClaimsView.ABSENT, claims.getExpiration());
+        assertEquals(parsed.getNotBefore().getTime() / 1000, claims.getNotBefore());
+    }
+
+    @Test
+    public void testUgyldigeTokens() {
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().build();
+        var unsigned = "eyJhbGciOiJub25lIn0.e30.";
+
+        assertThrows(IllegalArgumentException.class, () -> tokenHandler.validateToClaimsView(""));
+        assertThrows(MalformedJwtException.class, () -> tokenHandler.validateToClaimsView("a.b"));
+        assertThrows(MalformedJwtException.class, () -> tokenHandler.validateToClaimsView("a.b.c.d"));
+        assertThrows(MalformedJwtException.class, () -> tokenHandler.validateToClaimsView("!!!.e30.c2ln"));
+        assertThrows(UnsupportedJwtException.class, () -> tokenHandler.validateToClaimsView(unsigned));
+        assertThrows(UnsupportedJwtException.class, () -> tokenHandler.validateToClaimsView(
+                tokenHandler.getSignedToken(TokenHeaders.builder().withHeader("zip", "DEF").build(), "{}")));
+    }
+}
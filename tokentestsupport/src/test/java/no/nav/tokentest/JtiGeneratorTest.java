@@ -0,0 +1,47 @@
+package no.nav.tokentest;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class JtiGeneratorTest {
+
+    @Test
+    public void testUnikeVerdierFraMangeTraader() throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var tasks = new ArrayList<Callable<List<String>>>();
+            for (int i = 0; i < 16; i++) {
+                tasks.add(() -> {
+                    var values = new ArrayList<String>();
+                    for (int j = 0; j < 10_000; j++) {
+                        values.add(JtiGenerator.next());
+                    }
+                    return values;
+                });
+            }
+            var unique = new HashSet<String>();
+            for (var result : executor.invokeAll(tasks)) {
+                unique.addAll(result.get());
+            }
+
+            assertEquals(160_000, unique.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSammePrefiksITraad() {
+        var first = JtiGenerator.next();
+        var second = JtiGenerator.next();
+
+        assertEquals(first.substring(0, first.lastIndexOf('-')), second.substring(0, second.lastIndexOf('-')));
+    }
+}
@@ -0,0 +1,84 @@
+package no.nav.tokentest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KeyPairPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testNokkelparErUnike() {
+        var pool = new KeyPairPool(2);
+        var publicKeys = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            publicKeys.add(pool.take().getPublic());
+        }
+
+        assertEquals(5, publicKeys.size());
+    }
+
+    @Test
+    public void testTokenHandlereFaarHverSinNokkel() {
+        assertNotEquals(new TokenHandler().getPublicKey(), new TokenHandler().getPublicKey());
+    }
+
+    @Test
+    public void testNokkelparLagresOgLesesFraCachefil() throws IOException {
+        var cacheFile = tempDir.resolve("keys/cache.txt");
+        var forste = new KeyPairPool(1, cacheFile);
+        List<KeyPair> utdelt = new ArrayList<>();
+        utdelt.add(forste.take());
+        utdelt.add(forste.take());
+        forste.persist();
+
+        assertFalse(Files.readAllLines(cacheFile).isEmpty());
+
+        var andre = new KeyPairPool(1, cacheFile);
+        assertEquals(utdelt.get(0).getPublic(), andre.take().getPublic());
+        assertEquals(utdelt.get(1).getPublic(), andre.take().getPublic());
+        assertEquals(utdelt.get(1).getPrivate(), new TokenHandler(utdelt.get(1)).getPrivateKey());
+    }
+
+    @Test
+    public void testSammeCachefilDelerIkkeNokler() throws IOException {
+        var cacheFile = tempDir.resolve("cache.txt");
+        var forste = new KeyPairPool(1, cacheFile);
+        var utdelt = forste.take();
+        forste.persist();
+
+        var andre = new KeyPairPool(1, cacheFile);
+        var tredje = new KeyPairPool(1, cacheFile);
+
+        assertEquals(utdelt.getPublic(), andre.take().getPublic());
+        assertNotEquals(utdelt.getPublic(), tredje.take().getPublic());
+        tredje.persist();
+        andre.persist();
+        // Both saved their pairs, the last one to persist first
+        assertTrue(Files.readAllLines(cacheFile).size() >= 2);
+        assertEquals(utdelt.getPublic(), new KeyPairPool(1, cacheFile).take().getPublic());
+    }
+
+    @Test
+    public void testOdelagtCachefilGirNyeNokler() throws IOException {
+        var cacheFile = Files.writeString(tempDir.resolve("cache.txt"), "ikke% base64!");
+
+        var pool = new KeyPairPool(1, cacheFile);
+
+        pool.take();
+    }
+}
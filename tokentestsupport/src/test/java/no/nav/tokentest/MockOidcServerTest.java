@@ -0,0 +1,123 @@
+package no.nav.tokentest;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+public class MockOidcServerTest {
+    private final TokenHandler tokenHandler = new TokenHandler(true);
+    private final HttpClient client = HttpClient.newHttpClient();
+    private MockOidcServer server;
+
+    @BeforeAll
+    public void start() throws IOException {
+        server = MockOidcServer.start(tokenHandler);
+    }
+
+    @AfterAll
+    public void stop() {
+        server.close();
+    }
+
+    private HttpResponse<String> get(URI uri) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(uri).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testDiscovery() throws Exception {
+        var response = get(server.getDiscoveryUri());
+
+        assertEquals(200, response.statusCode());
+        var discovery = new Gson().fromJson(response.body(), Map.class);
+        assertEquals(server.getIssuer().toString(), discovery.get("issuer"));
+        assertEquals(server.getJwksUri().toString(), discovery.get("jwks_uri"));
+        assertEquals(server.getTokenEndpoint().toString(), discovery.get("token_endpoint"));
+    }
+
+    @Test
+    public void testJwks() throws Exception {
+        var response = get(server.getJwksUri());
+
+        assertEquals(200, response.statusCode());
+        assertEquals("application/json", response.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(tokenHandler.getJWKS(), response.body());
+    }
+
+    @Test
+    public void testToken() throws Exception {
+        var request = HttpRequest.newBuilder(server.getTokenEndpoint())
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=client_credentials&sub=bruker%201&aud=tjeneste"))
+                .build();
+
+        var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        assertEquals(200, response.statusCode());
+        var body = new Gson().fromJson(response.body(), Map.class);
+        assertEquals("Bearer", body.get("token_type"));
+        var claims = tokenHandler.validateAndParseToken((String) body.get("access_token"));
+        assertEquals("bruker 1", claims.getSubject());
+        assertEquals("tjeneste", claims.getAudience());
+        assertEquals(server.getIssuer().toString(), claims.getIssuer());
+        assertNull(claims.get("grant_type"));
+    }
+
+    @Test
+    public void testHemmeligheterBlirIkkeClaims() throws Exception {
+        var request = HttpRequest.newBuilder(server.getTokenEndpoint())
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("grant_type=password&client_id=klient&client_secret=hemmelig"
+                        + "&client_assertion_type=urn%3Aietf%3Aparams%3Aoauth%3Aclient-assertion-type%3Ajwt-bearer"
+                        + "&client_assertion=eyJ0.eyJ0.c2ln&username=bruker&password=passord"))
+                .build();
+
+        var response = client.send(request, HttpResponse.BodyHandlers.ofString());
+
+        var body = new Gson().fromJson(response.body(), Map.class);
+        var claims = tokenHandler.validateAndParseToken((String) body.get("access_token"));
+        assertEquals("klient", claims.get("client_id"));
+        assertEquals("bruker", claims.get("username"));
+        for (var parameter : List.of("client_secret", "client_assertion", "client_assertion_type", "password")) {
+            assertNull(claims.get(parameter), parameter);
+        }
+    }
+
+    @Test
+    public void testFeilGir500() throws Exception {
+        var feilendeHandler = new TokenHandler(true) {
+            @Override
+            public String getSignedToken(TokenClaims claims) {
+                throw new IllegalStateException("Signering feilet");
+            }
+        };
+        try (var feilendeServer = MockOidcServer.start(feilendeHandler)) {
+            var request = HttpRequest.newBuilder(feilendeServer.getTokenEndpoint())
+                    .POST(HttpRequest.BodyPublishers.ofString("sub=bruker"))
+                    .build();
+
+            assertEquals(500, client.send(request, HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(200, get(feilendeServer.getJwksUri()).statusCode());
+        }
+    }
+
+    @Test
+    public void testUkjentStiOgMetode() throws Exception {
+        assertEquals(404, get(server.getIssuer().resolve("/jwks/ukjent")).statusCode());
+        assertEquals(404, get(server.getIssuer().resolve("/ukjent")).statusCode());
+        assertEquals(405, get(server.getTokenEndpoint()).statusCode());
+    }
+}
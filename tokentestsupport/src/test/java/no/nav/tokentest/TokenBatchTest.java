@@ -0,0 +1,78 @@
+package no.nav.tokentest;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TokenBatchTest {
+    private final TokenHandler tokenHandler = new TokenHandler(true);
+
+    private TokenBatch.TokenBatchBuilder batch() {
+        return TokenBatch.builder(tokenHandler)
+                .withHeaders(TokenHeaders.builder().withKid("batch").build())
+                .withClaims(TokenClaims.builder().withDefaultClaims().withClaim("aud", "loadtest").build())
+                .withCustomizer((claims, index) -> claims.withClaim("sub", "bruker" + index));
+    }
+
+    @Test
+    public void testMintToConsumer() {
+        var tokens = new ConcurrentLinkedQueue<String>();
+
+        batch().build().mint(1000, tokens::add);
+
+        assertEquals(1000, tokens.size());
+        var subjects = new HashSet<String>();
+        for (var token : tokens) {
+            var claims = tokenHandler.validateAndParseToken(token);
+            assertEquals("loadtest", claims.getAudience());
+            subjects.add(claims.getSubject());
+        }
+        assertEquals(1000, subjects.size());
+    }
+
+    @Test
+    public void testMintToFile(@TempDir Path dir) throws IOException {
+        var file = dir.resolve("tokens.txt");
+        var executor = Executors.newFixedThreadPool(3);
+        try {
+            batch().withExecutor(executor).build().mintTo(file, 600);
+        } finally {
+            executor.shutdown();
+        }
+
+        var subjects = new HashSet<String>();
+        for (var token : Files.readAllLines(file)) {
+            subjects.add(tokenHandler.validateAndParseToken(token).getSubject());
+        }
+        assertEquals(600, subjects.size());
+    }
+
+    @Test
+    public void testMintWithVirtualThreads() {
+        var tokens = new ConcurrentLinkedQueue<String>();
+
+        batch().withVirtualThreads().build().mint(300, tokens::add);
+
+        assertEquals(300, tokens.size());
+    }
+
+    @Test
+    public void testFeilFraCustomizerKastesVidere() {
+        var feil = new IllegalStateException("feil");
+        var batch = batch().withCustomizer((claims, index) -> {
+            if (index == 400) throw feil;
+        }).build();
+
+        assertSame(feil, assertThrows(IllegalStateException.class, () -> batch.mint(500, token -> { })));
+    }
+}
@@ -0,0 +1,98 @@
+package no.nav.tokentest;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenClaimsTemplateTest {
+
+    @Test
+    public void testTomTemplate() {
+        var payload = new Gson().fromJson(TokenClaimsTemplate.builder().build().payload(), Map.class);
+
+        assertEquals(4, payload.size());
+        assertTrue(payload.containsKey("jti"));
+        assertTrue(payload.containsKey("exp"));
+        assertTrue(payload.containsKey("nbf"));
+        assertTrue(payload.containsKey("iat"));
+    }
+
+    @Test
+    public void testStatiskeOgDynamiskeClaims() {
+        var template = TokenClaimsTemplate.builder().withDefaultClaims()
+                .withClaims(TokenClaims.builder().withClaim("aud", "tjeneste").withClaim("sub", "ignoreres").build())
+                .withClaim("groups", List.of("a", "b"))
+                .withLifetime(Duration.ofHours(1))
+                .withNotBefore(Duration.ZERO)
+                .build();
+        long now = Instant.now().getEpochSecond();
+
+        var payload = new Gson().fromJson(template.payload("bruker", "id-1"), Map.class);
+
+        assertEquals("tokentestsupport-TokenHandler", payload.get("iss"));
+        assertEquals("tjeneste", payload.get("aud"));
+        assertEquals(List.of("a", "b"), payload.get("groups"));
+        assertEquals("bruker", payload.get("sub"));
+        assertEquals("id-1", payload.get("jti"));
+        long iat = ((Number) payload.get("iat")).longValue();
+        assertTrue(Math.abs(iat - now) <= 1);
+        assertEquals(iat + 3600, ((Number) payload.get("exp")).longValue());
+        assertEquals(iat, ((Number) payload.get("nbf")).longValue());
+    }
+
+    @Test
+    public void testDynamiskeClaimsAvvisesSomStatiske() {
+        var builder = TokenClaimsTemplate.builder();
+
+        for (var claim : List.of("sub", "jti", "exp", "nbf", "iat")) {
+            assertThrows(IllegalArgumentException.class, () -> builder.withClaim(claim, "verdi"));
+        }
+        assertThrows(IllegalArgumentException.class, () -> builder.withClaims(Map.of("sub", "bruker")));
+    }
+
+    @Test
+    public void testKlokke() {
+        var clock = new MutableClock(Instant.parse("2030-01-01T12:00:00Z"));
+        var template = TokenClaimsTemplate.builder().withClock(clock).build();
+
+        var before = new Gson().fromJson(template.payload(), Map.class);
+        clock.advance(Duration.ofHours(1));
+        var after = new Gson().fromJson(template.payload(), Map.class);
+
+        assertEquals(clock.instant().getEpochSecond() - 3600, ((Number) before.get("iat")).longValue());
+        assertEquals(clock.instant().getEpochSecond(), ((Number) after.get("iat")).longValue());
+    }
+
+    @Test
+    public void testEscaping() {
+        var subject = "a\"b\\c\nd\u0001e/æ";
+
+        var payload = new Gson().fromJson(TokenClaimsTemplate.builder().build().payload(subject, null), Map.class);
+
+        assertEquals(subject, payload.get("sub"));
+        assertFalse(payload.containsKey("jti"));
+    }
+
+    @Test
+    public void testSignertPayloadValideres() {
+        var tokenHandler = new TokenHandler(true);
+        var template = TokenClaimsTemplate.builder().withDefaultClaims().withClaim("aud", "tjeneste").build();
+
+        var signedToken = tokenHandler.getSignedToken(TokenHeaders.builder().build(), template.payload("bruker", "id-1"));
+
+        var claims = tokenHandler.validateAndParseTokenToJwts(signedToken);
+        assertEquals("bruker", claims.getBody().getSubject());
+        assertEquals("tjeneste", claims.getBody().getAudience());
+        assertNull(claims.getHeader().getKeyId());
+    }
+}
@@ -3,9 +3,14 @@ package no.nav.tokentest;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 
 public class TokenClaimsTest {
@@ -43,7 +48,27 @@ public class TokenClaimsTest {
 
         assertEquals(5, tc.getClaimsMap().size());
         assertEquals("tokentestsupport-TokenHandler", tc.getClaimsMap().get("iss"));
-        assertEquals("testid", tc.getClaimsMap().get("jti"));
+        assertNotNull(tc.getClaimsMap().get("jti"));
+    }
+
+    @Test
+    public void testWithDefaultClaimsMedKlokke() {
+        var clock = Clock.fixed(Instant.parse("2030-01-01T12:00:00Z"), ZoneOffset.UTC);
+
+        TokenClaims tc = TokenClaims.builder().withDefaultClaims(clock).build();
+
+        long iat = clock.instant().getEpochSecond();
+        assertEquals(iat, tc.getClaimsMap().get("iat"));
+        assertEquals(iat - 60, tc.getClaimsMap().get("nbf"));
+        assertEquals(iat + 300, tc.getClaimsMap().get("exp"));
+    }
+
+    @Test
+    public void testWithDefaultClaimsUnikJti() {
+        var jti1 = TokenClaims.builder().withDefaultClaims().build().getClaimsMap().get("jti");
+        var jti2 = TokenClaims.builder().withDefaultClaims().build().getClaimsMap().get("jti");
+
+        assertNotEquals(jti1, jti2);
     }
 
     @Test
@@ -52,7 +77,7 @@ public class TokenClaimsTest {
 
         assertEquals(5, tc.getClaimsMap().size());
         assertEquals("iss2", tc.getClaimsMap().get("iss"));
-        assertEquals("testid", tc.getClaimsMap().get("jti"));
+        assertNotNull(tc.getClaimsMap().get("jti"));
     }
 
     @Test
@@ -63,6 +88,6 @@ public class TokenClaimsTest {
 
         assertEquals(5, tc.getClaimsMap().size());
         assertEquals("iss3", tc.getClaimsMap().get("iss"));
-        assertEquals("testid", tc.getClaimsMap().get("jti"));
+        assertNotNull(tc.getClaimsMap().get("jti"));
     }
 }
\ No newline at end of file
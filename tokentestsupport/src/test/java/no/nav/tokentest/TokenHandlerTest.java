@@ -2,6 +2,7 @@ package no.nav.tokentest;
 
 import com.google.gson.Gson;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.security.SignatureException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -9,20 +10,41 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
 import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.Key;
 import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
 import java.security.spec.InvalidKeySpecException;
 import java.security.spec.RSAPublicKeySpec;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public class TokenHandlerTest {
@@ -165,6 +187,17 @@ public class TokenHandlerTest {
         assertEquals(expctedPublicKey, publicKeyFromJWKS);
     }
 
+    @ParameterizedTest
+    @MethodSource("tokenHandlerProvider")
+    public void testRsaJwksIsUnsignedAndUnpadded(TokenHandler tokenHandler) {
+        var key = new Gson().fromJson(tokenHandler.getJWKS(), Jwks.class).getKeys().get(0);
+        var modulus = ((RSAPublicKey) tokenHandler.getPublicKey()).getModulus();
+
+        assertFalse(key.getN().contains("=") || key.getE().contains("="));
+        assertEquals((modulus.bitLength() + 7) / 8, Base64.getUrlDecoder().decode(key.getN()).length);
+        assertEquals("AQAB", key.getE());
+    }
+
     @ParameterizedTest
     @MethodSource("tokenHandlerProvider")
     public void testValidatingFromJWKS(TokenHandler tokenHandler) throws InvalidKeySpecException, NoSuchAlgorithmException {
@@ -190,6 +223,282 @@ public class TokenHandlerTest {
         validateClaimsMap(claimsMap, claims);
     }
 
+    @ParameterizedTest
+    @MethodSource("tokenHandlerProvider")
+    public void testSigningAndValidatingFromManyThreads(TokenHandler tokenHandler) throws Exception {
+        var executor = Executors.newFixedThreadPool(8);
+        try {
+            var results = new ArrayList<Future<Object>>();
+            for (int i = 0; i < 200; i++) {
+                var value = "testvalue" + i;
+                results.add(executor.submit(() -> tokenHandler.validateAndParseToken(
+                        tokenHandler.getSignedToken("{\"testname\":\"" + value + "\"}")).get("testname")));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals("testvalue" + i, results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenHandlerProvider")
+    public void testJWKSIsCachedPerKid(TokenHandler tokenHandler) {
+        var jwks = tokenHandler.getJWKS("testkid");
+
+        assertSame(jwks, tokenHandler.getJWKS("testkid"));
+        assertNotEquals(jwks, tokenHandler.getJWKS("annenkid"));
+        var bytes = tokenHandler.getJWKSBytes("testkid");
+        assertTrue(bytes.isReadOnly());
+        assertEquals(jwks, StandardCharsets.UTF_8.decode(bytes).toString());
+        assertEquals(0, tokenHandler.getJWKSBytes("testkid").position());
+        assertNull(new Gson().fromJson(tokenHandler.getJWKS(null), Jwks.class).getKeys().get(0).getKid());
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenHandlerProvider")
+    public void testSignsWithoutKidWhileOneThumbprintKey(TokenHandler tokenHandler) {
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+
+        var decodedToken = tokenHandler.validateAndParseTokenToJwts(signedToken);
+
+        assertNull(decodedToken.getHeader().getKeyId());
+        var keys = new Gson().fromJson(tokenHandler.getJWKS(), Jwks.class).getKeys();
+        assertEquals(1, keys.size());
+        assertEquals(tokenHandler.getKid(), keys.get(0).getKid());
+    }
+
+    @Test
+    public void testSignsWithExplicitKid() {
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().withKid("static").build();
+
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+
+        assertEquals("static", tokenHandler.validateAndParseTokenToJwts(signedToken).getHeader().getKeyId());
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenHandlerProvider")
+    public void testValidatingFromJWKSWithKidMatchingResolver(TokenHandler tokenHandler) throws GeneralSecurityException {
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+        var keys = new Gson().fromJson(tokenHandler.getJWKS("testkid"), Jwks.class).getKeys();
+        var decoder = Base64.getUrlDecoder();
+        // Like nimbus and Spring: a token with a kid must name a key in the JWKS, one without may use any key
+        var resolver = new SigningKeyResolverAdapter() {
+            @Override
+            @SuppressWarnings("rawtypes")
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                var key = keys.stream()
+                        .filter(k -> header.getKeyId() == null || header.getKeyId().equals(k.getKid()))
+                        .findFirst().orElseThrow(() -> new SignatureException("No key with kid " + header.getKeyId()));
+                try {
+                    return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                            new BigInteger(1, decoder.decode(key.getN())), new BigInteger(1, decoder.decode(key.getE()))));
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        };
+
+        var claims = Jwts.parserBuilder().setSigningKeyResolver(resolver).build().parseClaimsJws(signedToken).getBody();
+
+        assertEquals("tokentestsupport-TokenHandler", claims.getIssuer());
+    }
+
+    @ParameterizedTest
+    @MethodSource("tokenHandlerProvider")
+    public void testRotatingKeys(TokenHandler tokenHandler) {
+        var oldKid = tokenHandler.getKid();
+        var unnamedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+        var oldToken = tokenHandler.getSignedToken(TokenHeaders.builder().withKid(oldKid).build(),
+                TokenClaims.builder().withDefaultClaims().build());
+
+        var newKid = tokenHandler.rotateKey();
+        var newToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+
+        assertNotEquals(oldKid, newKid);
+        assertEquals(newKid, tokenHandler.getKid());
+        assertEquals(List.of(oldKid, newKid), tokenHandler.getKids());
+        assertEquals(newKid, tokenHandler.validateAndParseTokenToJwts(newToken).getHeader().getKeyId());
+        assertEquals(oldKid, tokenHandler.validateAndParseTokenToJwts(oldToken).getHeader().getKeyId());
+        assertNull(tokenHandler.validateAndParseTokenToJwts(unnamedToken).getHeader().getKeyId());
+        assertEquals("tokentestsupport-TokenHandler", tokenHandler.validateToClaimsView(unnamedToken).getIssuer());
+        var kids = new Gson().fromJson(tokenHandler.getJWKS(), Jwks.class).getKeys().stream().map(Jwks.Keys::getKid).toList();
+        assertEquals(List.of(oldKid, newKid), kids);
+
+        tokenHandler.removeKey(oldKid);
+
+        assertThrows(SignatureException.class, () -> tokenHandler.validateAndParseToken(oldToken));
+        assertThrows(SignatureException.class, () -> tokenHandler.validateAndParseToken(unnamedToken));
+        assertThrows(SignatureException.class, () -> tokenHandler.validateToClaimsView(unnamedToken));
+        assertEquals(1, new Gson().fromJson(tokenHandler.getJWKS(), Jwks.class).getKeys().size());
+        assertThrows(IllegalArgumentException.class, () -> tokenHandler.removeKey(newKid));
+    }
+
+    @Test
+    public void testJWKSForKidFollowsSignedKid() {
+        var tokenHandler = new TokenHandler(true);
+        var oldKid = tokenHandler.getKid();
+        assertEquals("testkid", new Gson().fromJson(tokenHandler.getJWKS("testkid"), Jwks.class).getKeys().get(0).getKid());
+
+        var newKid = tokenHandler.rotateKey();
+
+        var current = new Gson().fromJson(tokenHandler.getJWKS("testkid"), Jwks.class).getKeys();
+        assertEquals(List.of(newKid), current.stream().map(Jwks.Keys::getKid).toList());
+        var old = new Gson().fromJson(tokenHandler.getJWKS(oldKid), Jwks.class).getKeys();
+        assertEquals(List.of(oldKid), old.stream().map(Jwks.Keys::getKid).toList());
+        assertNotEquals(current.get(0).getN(), old.get(0).getN());
+    }
+
+    @Test
+    public void testUsingAddedKey() {
+        var tokenHandler = new TokenHandler(true);
+        var keyPair = KeyPairPool.getDefault().take();
+        var kid = tokenHandler.addKey(keyPair);
+
+        assertThrows(IllegalArgumentException.class, () -> tokenHandler.addKey(keyPair));
+        assertThrows(IllegalArgumentException.class, () -> tokenHandler.useKey("ukjent"));
+        tokenHandler.useKey(kid);
+        var signedToken = tokenHandler.getSignedToken("{\"testname\":\"testvalue2\"}");
+
+        assertEquals("testvalue2", new TokenHandler(keyPair).validateAndParseToken(signedToken).get("testname"));
+        assertEquals(kid, new TokenHandler(keyPair).getKid());
+        assertEquals("static", TokenHandler.builder().withStaticKeyPair().withKid("static").build().getKid());
+    }
+
+    @Test
+    public void testValidationCache() {
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().withValidationCache(2, Duration.ofMinutes(1)).build();
+        var tokens = Stream.of("en", "to", "tre")
+                .map(sub -> tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().withClaim("sub", sub).build()))
+                .toList();
+
+        var first = tokenHandler.validateAndParseTokenToJwts(tokens.get(0));
+        assertSame(first, tokenHandler.validateAndParseTokenToJwts(tokens.get(0)));
+        assertEquals(new ValidationCacheStats(1, 1, 1), tokenHandler.getValidationCacheStats());
+
+        tokenHandler.validateAndParseToken(tokens.get(1));
+        tokenHandler.validateAndParseToken(tokens.get(2));
+        var evicted = tokenHandler.validateAndParseTokenToJwts(tokens.get(0));
+
+        assertNotSame(first, evicted);
+        assertEquals("en", evicted.getBody().getSubject());
+        assertEquals(new ValidationCacheStats(1, 4, 2), tokenHandler.getValidationCacheStats());
+        assertThrows(SignatureException.class, () -> tokenHandler.validateAndParseToken(tokens.get(0) + "x"));
+    }
+
+    @Test
+    public void testValidationCacheRespectsExp() {
+        var clock = MutableClock.now();
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().withClock(clock)
+                .withValidationCache(10, Duration.ofMinutes(1)).build();
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims(clock)
+                .withClaim("exp", clock.instant().plusSeconds(2).getEpochSecond()).build());
+
+        tokenHandler.validateAndParseToken(signedToken);
+        tokenHandler.validateAndParseToken(signedToken);
+        clock.advance(Duration.ofSeconds(3));
+
+        assertThrows(ExpiredJwtException.class, () -> tokenHandler.validateAndParseToken(signedToken));
+        assertEquals(new ValidationCacheStats(1, 2, 0), tokenHandler.getValidationCacheStats());
+    }
+
+    @Test
+    public void testValidationCacheIsClearedWhenKeyIsRemoved() {
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().withValidationCache(10, Duration.ofMinutes(1)).build();
+        var oldKid = tokenHandler.getKid();
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+        tokenHandler.validateAndParseToken(signedToken);
+
+        tokenHandler.rotateKey();
+        tokenHandler.removeKey(oldKid);
+
+        assertThrows(SignatureException.class, () -> tokenHandler.validateAndParseToken(signedToken));
+    }
+
+    @Test
+    public void testValideringFolgerKlokken() {
+        var clock = MutableClock.now();
+        var tokenHandler = TokenHandler.builder().withStaticKeyPair().withClock(clock)
+                .withValidationCache(10, Duration.ofHours(1)).build();
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims(clock).build());
+
+        clock.advance(Duration.ofMinutes(-2));
+        assertThrows(PrematureJwtException.class, () -> tokenHandler.validateAndParseToken(signedToken));
+        clock.advance(Duration.ofMinutes(6));
+        tokenHandler.validateAndParseToken(signedToken);
+        tokenHandler.validateAndParseToken(signedToken);
+        clock.advance(Duration.ofHours(3));
+
+        assertThrows(ExpiredJwtException.class, () -> tokenHandler.validateAndParseToken(signedToken));
+        assertEquals(new ValidationCacheStats(1, 3, 0), tokenHandler.getValidationCacheStats());
+    }
+
+    @Test
+    public void testListener() {
+        var operations = new ConcurrentLinkedQueue<String>();
+        var tokenHandler = TokenHandler.builder().withAlgorithm(SignatureAlgorithm.ES256)
+                .withListener((operation, durationNanos, success) -> operations.add(operation + ":" + success))
+                .build();
+
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+        tokenHandler.validateAndParseToken(signedToken);
+        assertThrows(SignatureException.class, () -> tokenHandler.validateAndParseToken(signedToken + "x"));
+        tokenHandler.getJWKS();
+        tokenHandler.rotateKey();
+
+        assertEquals(List.of("KEY_GENERATION:true", "SIGN:true", "VALIDATE:true", "VALIDATE:false", "JWKS:true",
+                "KEY_GENERATION:true"), List.copyOf(operations));
+    }
+
+    static Stream<TokenHandler> ecTokenHandlerProvider() {
+        return Stream.of(SignatureAlgorithm.ES256, SignatureAlgorithm.ES384, SignatureAlgorithm.ES512)
+                .flatMap(algorithm -> Stream.of(
+                        TokenHandler.builder().withAlgorithm(algorithm).build(),
+                        TokenHandler.builder().withAlgorithm(algorithm).withStaticKeyPair().build()));
+    }
+
+    @ParameterizedTest
+    @MethodSource("ecTokenHandlerProvider")
+    public void testSigningAndValidatingEc(TokenHandler tokenHandler) {
+        var claimsMap = createClaimsMap();
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withClaims(claimsMap).build());
+
+        var decodedToken = tokenHandler.validateAndParseTokenToJwts(signedToken);
+
+        assertEquals(tokenHandler.getAlgorithm().getValue(), decodedToken.getHeader().getAlgorithm());
+        validateClaimsMap(claimsMap, decodedToken.getBody());
+    }
+
+    @ParameterizedTest
+    @MethodSource("ecTokenHandlerProvider")
+    public void testValidatingEcFromJWKS(TokenHandler tokenHandler) throws GeneralSecurityException {
+        var signedToken = tokenHandler.getSignedToken("{\"testname\":\"testvalue2\"}");
+
+        var key = new Gson().fromJson(tokenHandler.getJWKS("testkid"), Jwks.class).getKeys().get(0);
+        assertEquals("EC", key.getKty());
+        assertEquals(tokenHandler.getAlgorithm().getValue(), key.getAlg());
+        var parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(Map.of("P-256", "secp256r1", "P-384", "secp384r1", "P-521", "secp521r1").get(key.getCrv())));
+        var decoder = Base64.getUrlDecoder();
+        var point = new ECPoint(new BigInteger(1, decoder.decode(key.getX())), new BigInteger(1, decoder.decode(key.getY())));
+        var publicKeyFromJWKS = KeyFactory.getInstance("EC")
+                .generatePublic(new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class)));
+
+        assertEquals(tokenHandler.getPublicKey(), publicKeyFromJWKS);
+        var decodedToken = Jwts.parserBuilder().setSigningKey(publicKeyFromJWKS).build().parseClaimsJws(signedToken).getBody();
+        assertEquals("testvalue2", decodedToken.get("testname"));
+    }
+
+    @ParameterizedTest
+    @MethodSource("ecTokenHandlerProvider")
+    public void testValidatingEcTokenWithRsaKey(TokenHandler tokenHandler) {
+        var signedToken = tokenHandler.getSignedToken(TokenClaims.builder().withDefaultClaims().build());
+
+        assertThrows(JwtException.class, () -> new TokenHandler(true).validateAndParseToken(signedToken));
+    }
+
     public static class IkkeParameterisert {
         @Test
         public void testSigningAndValidatingStaticKeyPair() {
@@ -0,0 +1,80 @@
+package no.nav.tokentest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TokenValidatorTest {
+    private final MutableClock clock = MutableClock.now();
+    private final ConcurrentLinkedQueue<String> operations = new ConcurrentLinkedQueue<>();
+    private final TokenHandler tokenHandler = TokenHandler.builder().withStaticKeyPair().withClock(clock)
+            .withListener((operation, durationNanos, success) -> {
+                if (operation == TokenHandlerListener.Operation.VALIDATE) operations.add(operation + ":" + success);
+            })
+            .build();
+    private final TokenValidator validator = tokenHandler.validator()
+            .requireIssuer("tokentestsupport-TokenHandler")
+            .requireAudience("api")
+            .requireClaim("admin", true)
+            .build();
+
+    private String token(String audience, Object admin) {
+        var claims = TokenClaims.builder().withDefaultClaims(clock).withClaim("sub", "bruker");
+        if (audience != null) claims.withClaim("aud", audience);
+        if (admin != null) claims.withClaim("admin", admin);
+        return tokenHandler.getSignedToken(claims.build());
+    }
+
+    @Test
+    public void testGyldigToken() {
+        var result = validator.validate(token("api", true));
+
+        assertTrue(result.isValid());
+        assertNull(result.failure());
+        assertEquals("bruker", result.claims().getSubject());
+    }
+
+    @Test
+    public void testFeilIClaims() {
+        var feilAudience = validator.validate(token("annet-api", true));
+        var manglerAdmin = validator.validate(token("api", null));
+
+        assertEquals(TokenValidationResult.Failure.INCORRECT_CLAIM, feilAudience.failure());
+        assertEquals("aud", feilAudience.claimName());
+        assertEquals(TokenValidationResult.Failure.MISSING_CLAIM, manglerAdmin.failure());
+        assertEquals("admin", manglerAdmin.claimName());
+        assertThrows(IllegalStateException.class, manglerAdmin::claims);
+    }
+
+    @Test
+    public void testTidOgSignatur() {
+        var signedToken = token("api", true);
+
+        assertEquals(TokenValidationResult.Failure.BAD_SIGNATURE, validator.validate(signedToken + "x").failure());
+        assertEquals(TokenValidationResult.Failure.MALFORMED, validator.validate("ikke.et.token").failure());
+        assertEquals(TokenValidationResult.Failure.MALFORMED, validator.validate("").failure());
+        clock.advance(Duration.ofMinutes(-2));
+        assertEquals(TokenValidationResult.Failure.NOT_YET_VALID, validator.validate(signedToken).failure());
+        assertTrue(tokenHandler.validator().withAllowedClockSkew(Duration.ofMinutes(2)).build()
+                .validate(signedToken).isValid());
+        clock.advance(Duration.ofMinutes(10));
+        assertEquals(TokenValidationResult.Failure.EXPIRED, validator.validate(signedToken).failure());
+    }
+
+    @Test
+    public void testListenerTellerValideringer() {
+        validator.validate(token("api", true));
+        validator.validate(token("api", false));
+
+        assertFalse(validator.validate(token("api", false)).isValid());
+        assertEquals(List.of("VALIDATE:true", "VALIDATE:false", "VALIDATE:false"), List.copyOf(operations));
+    }
+}